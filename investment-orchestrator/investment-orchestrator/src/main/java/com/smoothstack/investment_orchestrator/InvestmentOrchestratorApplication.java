@@ -19,9 +19,11 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableAutoConfiguration(exclude = {SecurityAutoConfiguration.class})
 @SpringBootApplication
+@EnableScheduling
 public class InvestmentOrchestratorApplication {
 
     public static void main(String[] args) {
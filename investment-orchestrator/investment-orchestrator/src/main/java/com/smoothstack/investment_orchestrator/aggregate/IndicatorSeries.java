@@ -0,0 +1,214 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.aggregate;
+
+import java.util.Arrays;
+
+/**
+ * Technical indicators of one symbol's daily bars, oldest first, updated in O(1) per bar.
+ * <p>
+ * Everything is kept per bar in primitive arrays: prefix sums of closes, of volume-weighted typical
+ * prices, of volumes and of log returns and their squares, so simple averages, VWAP and realized
+ * volatility of any trailing window are O(1); the running EMA, Wilder RSI averages, peak close and
+ * maximum drawdown at each bar depend only on the previous bar, so removing the newest bar needs no
+ * recomputation. Those running values start from the oldest bar held: the EMAs are seeded with its close,
+ * the RSI averages with the changes after it, and the peak is the highest close since it. Values that
+ * need more bars than are held are {@code NaN}. Not thread-safe.
+ */
+public final class IndicatorSeries {
+    public static final int EMA_SHORT = 12;
+    public static final int EMA_LONG = 26;
+    public static final int RSI_PERIOD = 14;
+    // live-data-service generates a bar for every calendar day, so a year is 365 bars, not 252.
+    static final double BARS_PER_YEAR = 365;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int maxBars;
+    private int size;
+    private double[] closes = new double[INITIAL_CAPACITY];
+    private double[] emaShort = new double[INITIAL_CAPACITY];
+    private double[] emaLong = new double[INITIAL_CAPACITY];
+    private double[] averageGains = new double[INITIAL_CAPACITY];
+    private double[] averageLosses = new double[INITIAL_CAPACITY];
+    private double[] peaks = new double[INITIAL_CAPACITY];
+    private double[] maxDrawdowns = new double[INITIAL_CAPACITY];
+    // Prefix sums: element i + 1 covers bars [0, i].
+    private double[] closeSums = new double[INITIAL_CAPACITY + 1];
+    private double[] priceVolumeSums = new double[INITIAL_CAPACITY + 1];
+    private double[] volumeSums = new double[INITIAL_CAPACITY + 1];
+    private double[] returnSums = new double[INITIAL_CAPACITY + 1];
+    private double[] squaredReturnSums = new double[INITIAL_CAPACITY + 1];
+
+    /**
+     * @param maxBars bars held at most; dropping older bars would change the running values, so the
+     *                owner clears and refills the series instead
+     */
+    public IndicatorSeries(int maxBars) {
+        this.maxBars = Math.max(2, maxBars);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void removeLast() {
+        if (size > 0) {
+            size--;
+        }
+    }
+
+    public void append(double high, double low, double close, double volume) {
+        if (size == maxBars) {
+            throw new IllegalStateException("Indicator series holds at most " + maxBars + " bars");
+        }
+        if (size == closes.length) {
+            grow(Math.min(closes.length * 2, Math.max(maxBars, INITIAL_CAPACITY)));
+        }
+        int i = size;
+        closes[i] = close;
+        closeSums[i + 1] = closeSums[i] + close;
+        priceVolumeSums[i + 1] = priceVolumeSums[i] + (high + low + close) / 3 * volume;
+        volumeSums[i + 1] = volumeSums[i] + volume;
+        if (i == 0) {
+            emaShort[0] = close;
+            emaLong[0] = close;
+            averageGains[0] = 0;
+            averageLosses[0] = 0;
+            peaks[0] = close;
+            maxDrawdowns[0] = 0;
+            returnSums[1] = 0;
+            squaredReturnSums[1] = 0;
+        } else {
+            double previous = closes[i - 1];
+            emaShort[i] = emaShort[i - 1] + 2.0 / (EMA_SHORT + 1) * (close - emaShort[i - 1]);
+            emaLong[i] = emaLong[i - 1] + 2.0 / (EMA_LONG + 1) * (close - emaLong[i - 1]);
+
+            double change = close - previous;
+            // Plain averages of the first RSI_PERIOD changes, then Wilder's smoothing.
+            int n = Math.min(i, RSI_PERIOD);
+            averageGains[i] = (averageGains[i - 1] * (n - 1) + Math.max(change, 0)) / n;
+            averageLosses[i] = (averageLosses[i - 1] * (n - 1) + Math.max(-change, 0)) / n;
+
+            peaks[i] = Math.max(peaks[i - 1], close);
+            maxDrawdowns[i] = Math.max(maxDrawdowns[i - 1], 1 - close / peaks[i]);
+
+            double logReturn = previous > 0 && close > 0 ? Math.log(close / previous) : 0;
+            returnSums[i + 1] = returnSums[i] + logReturn;
+            squaredReturnSums[i + 1] = squaredReturnSums[i] + logReturn * logReturn;
+        }
+        size++;
+    }
+
+    /**
+     * Simple moving average of the latest {@code days} closes.
+     */
+    public double sma(int days) {
+        return days < 1 || days > size ? Double.NaN : (closeSums[size] - closeSums[size - days]) / days;
+    }
+
+    /**
+     * Exponential moving average of {@link #EMA_SHORT} or {@link #EMA_LONG} closes, seeded with the first
+     * close and reported once that many bars are held.
+     */
+    public double ema(int period) {
+        if (size < period) {
+            return Double.NaN;
+        }
+        return switch (period) {
+            case EMA_SHORT -> emaShort[size - 1];
+            case EMA_LONG -> emaLong[size - 1];
+            default -> throw new IllegalArgumentException("No EMA kept for " + period + " bars");
+        };
+    }
+
+    /**
+     * Wilder's relative strength index over {@link #RSI_PERIOD} bars, from 0 to 100.
+     */
+    public double rsi() {
+        if (size <= RSI_PERIOD) {
+            return Double.NaN;
+        }
+        double loss = averageLosses[size - 1];
+        return loss == 0 ? 100 : 100 - 100 / (1 + averageGains[size - 1] / loss);
+    }
+
+    /**
+     * Volume-weighted average typical price, {@code (high + low + close) / 3}, of the latest {@code days}
+     * bars.
+     */
+    public double vwap(int days) {
+        if (days < 1 || days > size) {
+            return Double.NaN;
+        }
+        double volume = volumeSums[size] - volumeSums[size - days];
+        return volume == 0 ? Double.NaN : (priceVolumeSums[size] - priceVolumeSums[size - days]) / volume;
+    }
+
+    /**
+     * Sum of the latest {@code days} daily log returns, the log of the close over the close
+     * {@code days} bars earlier.
+     */
+    public double momentum(int days) {
+        return days < 1 || days > size - 1 ? Double.NaN : returnSums[size] - returnSums[size - days];
+    }
+
+    /**
+     * Annualized standard deviation of the latest {@code days} daily log returns.
+     */
+    public double volatility(int days) {
+        if (days < 2 || days > size - 1) {
+            return Double.NaN;
+        }
+        double sum = returnSums[size] - returnSums[size - days];
+        double squares = squaredReturnSums[size] - squaredReturnSums[size - days];
+        double variance = Math.max(0, (squares - sum * sum / days) / (days - 1));
+        return Math.sqrt(variance * BARS_PER_YEAR);
+    }
+
+    /**
+     * Fall of the latest close from the highest close held, as a fraction.
+     */
+    public double drawdown() {
+        return size == 0 ? Double.NaN : 1 - closes[size - 1] / peaks[size - 1];
+    }
+
+    /**
+     * Largest fall from a previous peak close over the bars held, as a fraction.
+     */
+    public double maxDrawdown() {
+        return size == 0 ? Double.NaN : maxDrawdowns[size - 1];
+    }
+
+    private void grow(int capacity) {
+        closes = Arrays.copyOf(closes, capacity);
+        emaShort = Arrays.copyOf(emaShort, capacity);
+        emaLong = Arrays.copyOf(emaLong, capacity);
+        averageGains = Arrays.copyOf(averageGains, capacity);
+        averageLosses = Arrays.copyOf(averageLosses, capacity);
+        peaks = Arrays.copyOf(peaks, capacity);
+        maxDrawdowns = Arrays.copyOf(maxDrawdowns, capacity);
+        closeSums = Arrays.copyOf(closeSums, capacity + 1);
+        priceVolumeSums = Arrays.copyOf(priceVolumeSums, capacity + 1);
+        volumeSums = Arrays.copyOf(volumeSums, capacity + 1);
+        returnSums = Arrays.copyOf(returnSums, capacity + 1);
+        squaredReturnSums = Arrays.copyOf(squaredReturnSums, capacity + 1);
+    }
+}
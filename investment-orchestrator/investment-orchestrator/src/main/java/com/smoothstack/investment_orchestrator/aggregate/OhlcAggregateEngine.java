@@ -0,0 +1,210 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.aggregate;
+
+import com.smoothstack.investment_orchestrator.dto.AggregatedOHLCDTO;
+import com.smoothstack.investment_orchestrator.dto.TechnicalIndicatorsDTO;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesData;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps an {@link OhlcSeries} and an {@link IndicatorSeries} per symbol and answers OHLC summaries of
+ * trailing windows and technical indicators from them.
+ * <p>
+ * {@link #update} only looks at the bars newer than the ones already held: the newest bar is replaced,
+ * since today's bar may still change, and later bars are appended. The bar before the replaced one is
+ * compared as an anchor, and the series is rebuilt when a history reaches further back than it, does
+ * not connect to it, or differs from it on the anchor, as it does after the history was regenerated.
+ * <p>
+ * The indicators always cover exactly the latest {@link #INDICATOR_BARS} bars of the series, whatever
+ * else was merged before, so every instance answers the same for the same history. While the oldest of
+ * those bars stays the same the newest bars are applied in O(1); once it moves, on a new day, the
+ * indicators are recomputed from the series' bars.
+ */
+@Component
+public class OhlcAggregateEngine {
+    // Comfortably more than the longest window asked for; older bars are dropped in halves beyond it.
+    private static final int MAX_BARS = 1024;
+
+    /**
+     * Daily bars the EMAs, RSI and drawdowns run over.
+     */
+    public static final int INDICATOR_BARS = 60;
+
+    private final Map<String, Bars> series = new ConcurrentHashMap<>();
+
+    private static final class Bars {
+        final OhlcSeries ohlc = new OhlcSeries(MAX_BARS);
+        final IndicatorSeries indicators = new IndicatorSeries(INDICATOR_BARS);
+        // Day of the oldest bar the indicators cover.
+        LocalDate indicatorsFrom;
+    }
+
+    /**
+     * Merges a daily history of the symbol into its series.
+     */
+    public void update(String symbol, List<TimeSeriesData> history) {
+        if (history.isEmpty()) {
+            return;
+        }
+        List<TimeSeriesData> bars = history;
+        if (bars.get(0).getDate().isAfter(bars.get(bars.size() - 1).getDate())) {
+            bars = new ArrayList<>(history);
+            bars.sort(Comparator.comparing(TimeSeriesData::getDate));
+        }
+        Bars bySymbol = series.computeIfAbsent(symbol, key -> new Bars());
+        synchronized (bySymbol) {
+            int from = bySymbol.ohlc.size() == 0 ? -1 : overlap(bySymbol.ohlc, bars);
+            boolean rebuilt = from < 0;
+            if (rebuilt) {
+                bySymbol.ohlc.clear();
+                from = 0;
+            } else {
+                bySymbol.ohlc.removeLast();
+            }
+            for (int i = from; i < bars.size(); i++) {
+                TimeSeriesData bar = bars.get(i);
+                bySymbol.ohlc.append(bar.getDate(), bar.getOpen(), bar.getHigh(), bar.getLow(), bar.getClose(),
+                        bar.getVolume() == null ? 0 : bar.getVolume());
+            }
+            updateIndicators(bySymbol, rebuilt, bars.size() - from);
+        }
+    }
+
+    /**
+     * Brings the indicators up to the series' latest {@link #INDICATOR_BARS} bars after the last
+     * {@code appended} bars were replaced or appended.
+     */
+    private static void updateIndicators(Bars bySymbol, boolean rebuilt, int appended) {
+        OhlcSeries ohlc = bySymbol.ohlc;
+        IndicatorSeries indicators = bySymbol.indicators;
+        int first = Math.max(0, ohlc.size() - INDICATOR_BARS);
+        int from;
+        if (!rebuilt && ohlc.date(first).equals(bySymbol.indicatorsFrom)) {
+            indicators.removeLast();
+            from = ohlc.size() - appended;
+        } else {
+            indicators.clear();
+            bySymbol.indicatorsFrom = ohlc.date(first);
+            from = first;
+        }
+        for (int i = from; i < ohlc.size(); i++) {
+            indicators.append(ohlc.highCents(i) / 100.0, ohlc.lowCents(i) / 100.0, ohlc.closeCents(i) / 100.0,
+                    ohlc.volume(i));
+        }
+    }
+
+    /**
+     * The summary of the latest {@code days} bars of the symbol for each of the windows, in order.
+     *
+     * @throws IllegalArgumentException if a window is longer than the symbol's series
+     */
+    public List<AggregatedOHLCDTO> aggregates(String symbol, int... windows) {
+        Bars bySymbol = series.get(symbol);
+        List<AggregatedOHLCDTO> aggregates = new ArrayList<>(windows.length);
+        if (bySymbol == null) {
+            if (windows.length > 0) {
+                throw new IllegalArgumentException("Not enough data for " + windows[0] + " day aggregation");
+            }
+            return aggregates;
+        }
+        synchronized (bySymbol) {
+            for (int days : windows) {
+                aggregates.add(bySymbol.ohlc.aggregate(days));
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * The indicators of the symbol as of its latest bar, or null if no history was merged for it yet.
+     */
+    public TechnicalIndicatorsDTO indicators(String symbol) {
+        Bars bySymbol = series.get(symbol);
+        if (bySymbol == null) {
+            return null;
+        }
+        synchronized (bySymbol) {
+            if (bySymbol.ohlc.size() == 0) {
+                return null;
+            }
+            IndicatorSeries indicators = bySymbol.indicators;
+            return new TechnicalIndicatorsDTO(bySymbol.ohlc.lastDate(),
+                    decimal(indicators.sma(10), 2),
+                    decimal(indicators.sma(20), 2),
+                    decimal(indicators.ema(IndicatorSeries.EMA_SHORT), 2),
+                    decimal(indicators.ema(IndicatorSeries.EMA_LONG), 2),
+                    decimal(indicators.rsi(), 2),
+                    decimal(indicators.vwap(20), 2),
+                    decimal(indicators.volatility(20), 4),
+                    decimal(indicators.drawdown(), 4),
+                    decimal(indicators.maxDrawdown(), 4));
+        }
+    }
+
+    /**
+     * The momentum signal of the symbol as of its latest bar, or null if it has too few bars for one.
+     */
+    public Signal signal(String symbol) {
+        Bars bySymbol = series.get(symbol);
+        if (bySymbol == null) {
+            return null;
+        }
+        synchronized (bySymbol) {
+            return bySymbol.ohlc.size() == 0 ? null : Signal.of(bySymbol.ohlc.lastDate(), bySymbol.indicators);
+        }
+    }
+
+    private static BigDecimal decimal(double value, int scale) {
+        return Double.isFinite(value) ? BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP) : null;
+    }
+
+    /**
+     * The index of the history's bar for the series' newest day, scanning back from the end, or -1 if
+     * the series has to be rebuilt.
+     */
+    private static int overlap(OhlcSeries bySymbol, List<TimeSeriesData> bars) {
+        if (bars.get(0).getDate().isBefore(bySymbol.firstDate())) {
+            return -1;
+        }
+        int i = bars.size() - 1;
+        while (i >= 0 && bars.get(i).getDate().isAfter(bySymbol.lastDate())) {
+            i--;
+        }
+        if (i < 0 || !bars.get(i).getDate().equals(bySymbol.lastDate())) {
+            return -1;
+        }
+        // The newest bar is replaced anyway; the one before it must be the bar already held for its day.
+        if (i > 0 && bySymbol.size() > 1) {
+            TimeSeriesData anchor = bars.get(i - 1);
+            if (!bySymbol.matches(bySymbol.size() - 2, anchor.getDate(), anchor.getOpen(), anchor.getHigh(),
+                    anchor.getLow(), anchor.getClose(), anchor.getVolume() == null ? 0 : anchor.getVolume())) {
+                return -1;
+            }
+        }
+        return i;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.aggregate;
+
+import com.smoothstack.investment_orchestrator.dto.AggregatedOHLCDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Daily bars of one symbol, oldest first, indexed so that the OHLC summary of any run of consecutive
+ * days is answered in constant time.
+ * <p>
+ * Highs and lows are kept in sparse tables, where level {@code k} holds the extreme of the
+ * {@code 2^k} bars starting at each index, so any window is covered by two overlapping entries. Volume
+ * is kept as prefix sums. Appending a bar fills in the one new entry of each level, O(log n); removing
+ * the newest bar is O(1) because later appends overwrite the entries that covered it. Prices are held
+ * in cents. Not thread-safe.
+ */
+public final class OhlcSeries {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int maxBars;
+    private int size;
+    private long[] dates = new long[INITIAL_CAPACITY];
+    private long[] opens = new long[INITIAL_CAPACITY];
+    private long[] closes = new long[INITIAL_CAPACITY];
+    private long[][] highs = new long[levels(INITIAL_CAPACITY)][INITIAL_CAPACITY];
+    private long[][] lows = new long[levels(INITIAL_CAPACITY)][INITIAL_CAPACITY];
+    // volumeSums[i] is the total volume of bars [0, i).
+    private long[] volumeSums = new long[INITIAL_CAPACITY + 1];
+
+    /**
+     * @param maxBars bars kept; when full, the older half is dropped
+     */
+    public OhlcSeries(int maxBars) {
+        this.maxBars = Math.max(2, maxBars);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDate firstDate() {
+        return LocalDate.ofEpochDay(dates[0]);
+    }
+
+    public LocalDate lastDate() {
+        return LocalDate.ofEpochDay(dates[size - 1]);
+    }
+
+    public LocalDate date(int index) {
+        return LocalDate.ofEpochDay(dates[index]);
+    }
+
+    public long highCents(int index) {
+        return highs[0][index];
+    }
+
+    public long lowCents(int index) {
+        return lows[0][index];
+    }
+
+    public long closeCents(int index) {
+        return closes[index];
+    }
+
+    public long volume(int index) {
+        return volumeSums[index + 1] - volumeSums[index];
+    }
+
+    /**
+     * Whether bar {@code index} holds exactly these values.
+     */
+    public boolean matches(int index, LocalDate date, BigDecimal open, BigDecimal high, BigDecimal low,
+                           BigDecimal close, long volume) {
+        return dates[index] == date.toEpochDay() && opens[index] == toCents(open)
+                && highs[0][index] == toCents(high) && lows[0][index] == toCents(low)
+                && closes[index] == toCents(close) && volumeSums[index + 1] - volumeSums[index] == volume;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void removeLast() {
+        if (size > 0) {
+            size--;
+        }
+    }
+
+    public void append(LocalDate date, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close,
+                       long volume) {
+        append(date.toEpochDay(), toCents(open), toCents(high), toCents(low), toCents(close), volume);
+    }
+
+    public void append(long epochDay, long openCents, long highCents, long lowCents, long closeCents, long volume) {
+        if (size == maxBars) {
+            dropOlderHalf();
+        }
+        if (size == dates.length) {
+            grow();
+        }
+        int i = size;
+        dates[i] = epochDay;
+        opens[i] = openCents;
+        closes[i] = closeCents;
+        volumeSums[i + 1] = volumeSums[i] + volume;
+        highs[0][i] = highCents;
+        lows[0][i] = lowCents;
+        for (int k = 1; (1 << k) <= i + 1; k++) {
+            int j = i - (1 << k) + 1;
+            int half = j + (1 << (k - 1));
+            highs[k][j] = Math.max(highs[k - 1][j], highs[k - 1][half]);
+            lows[k][j] = Math.min(lows[k - 1][j], lows[k - 1][half]);
+        }
+        size++;
+    }
+
+    /**
+     * The summary of the latest {@code days} bars.
+     *
+     * @throws IllegalArgumentException if the series holds fewer bars
+     */
+    public AggregatedOHLCDTO aggregate(int days) {
+        if (days < 1 || days > size) {
+            throw new IllegalArgumentException("Not enough data for " + days + " day aggregation");
+        }
+        return aggregate(size - days, size - 1);
+    }
+
+    /**
+     * The summary of bars {@code from} through {@code to}, inclusive.
+     */
+    public AggregatedOHLCDTO aggregate(int from, int to) {
+        int k = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+        int second = to - (1 << k) + 1;
+        long high = Math.max(highs[k][from], highs[k][second]);
+        long low = Math.min(lows[k][from], lows[k][second]);
+        return new AggregatedOHLCDTO(LocalDate.ofEpochDay(dates[from]), LocalDate.ofEpochDay(dates[to]),
+                BigDecimal.valueOf(opens[from], 2), BigDecimal.valueOf(high, 2), BigDecimal.valueOf(low, 2),
+                BigDecimal.valueOf(closes[to], 2), volumeSums[to + 1] - volumeSums[from]);
+    }
+
+    private void grow() {
+        int capacity = Math.min(dates.length * 2, Math.max(maxBars, INITIAL_CAPACITY));
+        dates = Arrays.copyOf(dates, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumeSums = Arrays.copyOf(volumeSums, capacity + 1);
+        highs = grow(highs, capacity);
+        lows = grow(lows, capacity);
+    }
+
+    private static long[][] grow(long[][] table, int capacity) {
+        long[][] grown = Arrays.copyOf(table, levels(capacity));
+        for (int k = 0; k < grown.length; k++) {
+            grown[k] = k < table.length ? Arrays.copyOf(table[k], capacity) : new long[capacity];
+        }
+        return grown;
+    }
+
+    private void dropOlderHalf() {
+        int from = size / 2;
+        long[] keptDates = Arrays.copyOfRange(dates, from, size);
+        long[] keptOpens = Arrays.copyOfRange(opens, from, size);
+        long[] keptCloses = Arrays.copyOfRange(closes, from, size);
+        long[] keptHighs = Arrays.copyOfRange(highs[0], from, size);
+        long[] keptLows = Arrays.copyOfRange(lows[0], from, size);
+        long[] keptVolumes = new long[size - from];
+        for (int i = from; i < size; i++) {
+            keptVolumes[i - from] = volumeSums[i + 1] - volumeSums[i];
+        }
+        size = 0;
+        for (int i = 0; i < keptDates.length; i++) {
+            append(keptDates[i], keptOpens[i], keptHighs[i], keptLows[i], keptCloses[i], keptVolumes[i]);
+        }
+    }
+
+    private static int levels(int capacity) {
+        return 32 - Integer.numberOfLeadingZeros(capacity);
+    }
+
+    static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
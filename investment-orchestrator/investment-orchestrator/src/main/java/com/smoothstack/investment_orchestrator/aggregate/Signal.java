@@ -0,0 +1,50 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.aggregate;
+
+import java.time.LocalDate;
+
+/**
+ * A symbol's momentum signal as of its latest daily bar.
+ * <p>
+ * The score is the log return over the latest {@link #DAYS} bars measured against the move the
+ * symbol's own realized volatility would explain over that many days, squashed into -1 to 1 with
+ * {@code tanh}; a steady climb in a quiet stock scores higher than the same climb in a noisy one.
+ */
+public record Signal(LocalDate asOf, double score, String sentiment) {
+    public static final int DAYS = 20;
+    public static final String POSITIVE = "positive";
+    public static final String NEGATIVE = "negative";
+    public static final String NEUTRAL = "neutral";
+
+    // Scores closer to zero than this are within the noise of a random walk.
+    private static final double THRESHOLD = 0.25;
+
+    /**
+     * The signal of the series' latest bar, or null if it holds too few bars.
+     */
+    static Signal of(LocalDate asOf, IndicatorSeries indicators) {
+        double momentum = indicators.momentum(DAYS);
+        double volatility = indicators.volatility(DAYS);
+        if (!Double.isFinite(momentum) || !Double.isFinite(volatility)) {
+            return null;
+        }
+        double expectedMove = volatility * Math.sqrt(DAYS / IndicatorSeries.BARS_PER_YEAR);
+        double score = expectedMove == 0 ? Math.signum(momentum) : Math.tanh(momentum / expectedMove / 2);
+        return new Signal(asOf, score, score >= THRESHOLD ? POSITIVE : score <= -THRESHOLD ? NEGATIVE : NEUTRAL);
+    }
+}
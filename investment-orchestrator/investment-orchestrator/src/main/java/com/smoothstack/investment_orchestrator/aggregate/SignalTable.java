@@ -0,0 +1,40 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.aggregate;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * An immutable set of signals computed together. Each computation publishes a new table with the next
+ * version, so readers see either the previous set or the new one, never a mix.
+ */
+public record SignalTable(long version, Instant computedAt, Map<String, Signal> signals) {
+    public static final SignalTable EMPTY = new SignalTable(0, null, Map.of());
+
+    public SignalTable {
+        signals = Map.copyOf(signals);
+    }
+
+    public Signal get(String symbol) {
+        return signals.get(symbol);
+    }
+
+    public SignalTable next(Map<String, Signal> signals, Instant computedAt) {
+        return new SignalTable(version + 1, computedAt, signals);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smoothstack.investment_orchestrator.config.LiveDataCacheProperties;
+import com.smoothstack.investment_orchestrator.dto.MetaDataDTO;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through caches of live-data-service histories and metadata, bounded by size (W-TinyLFU) and by
+ * time since they were fetched.
+ * <p>
+ * A miss stores the pending fetch itself, so concurrent requests for the same key share one call to
+ * live-data-service; a failed fetch is not cached. Hits, misses, loads and evictions are exported as
+ * the {@code cache.*} metrics of the {@code live-data.history} and {@code live-data.meta-data} caches.
+ */
+@Component
+public class LiveDataCache {
+    private final AsyncLoadingCache<HistoryKey, TimeSeriesDTO> histories;
+    private final AsyncLoadingCache<String, MetaDataDTO> metaData;
+
+    private record HistoryKey(String symbol, Integer limit) {
+    }
+
+    public LiveDataCache(LiveDataClient client, LiveDataCacheProperties properties, MeterRegistry meterRegistry) {
+        histories = Caffeine.newBuilder()
+                .maximumSize(properties.historyMaxSize())
+                .expireAfterWrite(properties.historyTtl())
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<TimeSeriesDTO> asyncLoad(HistoryKey key, Executor executor) {
+                        return client.getStockHistory(key.symbol(), key.limit()).toFuture();
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<HistoryKey, TimeSeriesDTO>> asyncLoadAll(
+                            Set<? extends HistoryKey> keys, Executor executor) {
+                        return loadHistories(client, keys);
+                    }
+                });
+        metaData = Caffeine.newBuilder()
+                .maximumSize(properties.metaDataMaxSize())
+                .expireAfterWrite(properties.metaDataTtl())
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<MetaDataDTO> asyncLoad(String symbol, Executor executor) {
+                        return client.getMetaData(symbol).toFuture();
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<String, MetaDataDTO>> asyncLoadAll(Set<? extends String> symbols,
+                                                                                    Executor executor) {
+                        return client.getMetaData(new ArrayList<>(symbols))
+                                .map(list -> list.stream()
+                                        .collect(Collectors.toMap(MetaDataDTO::symbol, dto -> dto, (a, b) -> a)))
+                                .toFuture();
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, histories, "live-data.history");
+        CaffeineCacheMetrics.monitor(meterRegistry, metaData, "live-data.meta-data");
+    }
+
+    /**
+     * The symbol's history, limited to the latest {@code limit} rows unless {@code limit} is null.
+     */
+    public CompletableFuture<TimeSeriesDTO> getStockHistory(String symbol, Integer limit) {
+        return histories.get(new HistoryKey(symbol, limit));
+    }
+
+    /**
+     * The latest {@code limit} rows of each symbol's history, in the order given. Missing symbols are
+     * fetched together with batch requests.
+     */
+    public CompletableFuture<List<TimeSeriesDTO>> getStockHistories(List<String> symbols, int limit) {
+        List<HistoryKey> keys = symbols.stream().map(symbol -> new HistoryKey(symbol, limit)).toList();
+        return histories.getAll(keys).thenApply(loaded -> keys.stream()
+                .distinct()
+                .map(loaded::get)
+                .filter(history -> history != null)
+                .toList());
+    }
+
+    public CompletableFuture<MetaDataDTO> getMetaData(String symbol) {
+        return metaData.get(symbol);
+    }
+
+    /**
+     * The metadata of each known symbol, in the order given. Missing symbols are fetched together with
+     * batch requests.
+     */
+    public CompletableFuture<List<MetaDataDTO>> getMetaData(List<String> symbols) {
+        return metaData.getAll(symbols).thenApply(loaded -> symbols.stream()
+                .distinct()
+                .map(loaded::get)
+                .filter(dto -> dto != null)
+                .toList());
+    }
+
+    private static CompletableFuture<Map<HistoryKey, TimeSeriesDTO>> loadHistories(LiveDataClient client,
+                                                                                  Set<? extends HistoryKey> keys) {
+        Map<Integer, List<String>> symbolsByLimit = new LinkedHashMap<>();
+        for (HistoryKey key : keys) {
+            symbolsByLimit.computeIfAbsent(key.limit(), limit -> new ArrayList<>()).add(key.symbol());
+        }
+        return Flux.fromIterable(symbolsByLimit.entrySet())
+                .flatMap(group -> histories(client, group.getValue(), group.getKey())
+                        .map(history -> Map.entry(new HistoryKey(history.symbol(), group.getKey()), history)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .toFuture();
+    }
+
+    private static Flux<TimeSeriesDTO> histories(LiveDataClient client, List<String> symbols, Integer limit) {
+        // Full histories have no batch endpoint and are fetched one request per symbol.
+        return limit == null
+                ? Flux.fromIterable(symbols).flatMap(symbol -> client.getStockHistory(symbol, null))
+                : client.getStockHistories(symbols, limit).flatMapIterable(list -> list);
+    }
+}
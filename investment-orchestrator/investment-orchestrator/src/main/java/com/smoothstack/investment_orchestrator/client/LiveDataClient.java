@@ -0,0 +1,98 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.client;
+
+import com.smoothstack.investment_orchestrator.config.LiveDataProperties;
+import com.smoothstack.investment_orchestrator.dto.MetaDataDTO;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesDTO;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Non-blocking client of live-data-service over a pooled keep-alive {@link WebClient}. Every call is
+ * bounded by {@code live-data.response-timeout}; multi-symbol calls are split into batches of
+ * {@code live-data.batch-size} that are fetched concurrently and returned in the order requested.
+ */
+@Component
+public class LiveDataClient {
+    private final WebClient webClient;
+    private final LiveDataProperties properties;
+
+    public LiveDataClient(@Qualifier("liveDataWebClient") WebClient webClient, LiveDataProperties properties) {
+        this.webClient = webClient;
+        this.properties = properties;
+    }
+
+    public Mono<TimeSeriesDTO> getStockHistory(String symbol, Integer limit) {
+        return webClient.get()
+                .uri(uri -> uri.path("/history/{symbol}")
+                        .queryParamIfPresent("limit", Optional.ofNullable(limit))
+                        .build(symbol))
+                .retrieve()
+                .bodyToMono(TimeSeriesDTO.class)
+                .timeout(properties.responseTimeout())
+                .onErrorMap(e -> new RuntimeException("Failed to fetch stock history for symbol: " + symbol, e));
+    }
+
+    public Mono<MetaDataDTO> getMetaData(String symbol) {
+        return webClient.get()
+                .uri("/meta-data/{symbol}", symbol)
+                .retrieve()
+                .bodyToMono(MetaDataDTO.class)
+                .timeout(properties.responseTimeout())
+                .onErrorMap(e -> new RuntimeException("Failed to fetch stock meta data for symbol: " + symbol, e));
+    }
+
+    public Mono<List<TimeSeriesDTO>> getStockHistories(List<String> symbols, int limit) {
+        return fanOut(symbols, batch -> webClient.post()
+                .uri(uri -> uri.path("/history:batch").queryParam("limit", limit).build())
+                .bodyValue(batch)
+                .retrieve()
+                .bodyToFlux(TimeSeriesDTO.class)
+                .timeout(properties.responseTimeout())
+                .onErrorMap(e -> new RuntimeException("Failed to fetch stock histories for symbols: " + batch, e)));
+    }
+
+    public Mono<List<MetaDataDTO>> getMetaData(List<String> symbols) {
+        return fanOut(symbols, batch -> webClient.post()
+                .uri("/meta-data:batch")
+                .bodyValue(batch)
+                .retrieve()
+                .bodyToFlux(MetaDataDTO.class)
+                .timeout(properties.responseTimeout())
+                .onErrorMap(e -> new RuntimeException("Failed to fetch stock meta data for symbols: " + batch, e)));
+    }
+
+    private <T> Mono<List<T>> fanOut(List<String> symbols, Function<List<String>, Flux<T>> call) {
+        int batchSize = Math.max(1, properties.batchSize());
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < symbols.size(); i += batchSize) {
+            batches.add(symbols.subList(i, Math.min(symbols.size(), i + batchSize)));
+        }
+        return Flux.fromIterable(batches)
+                .flatMapSequential(call, Math.max(1, properties.concurrency()))
+                .collectList();
+    }
+}
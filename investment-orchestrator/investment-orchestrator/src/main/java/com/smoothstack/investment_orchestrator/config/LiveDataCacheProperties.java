@@ -0,0 +1,37 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bounds of the orchestrator's caches of live-data-service responses.
+ *
+ * @param historyMaxSize  histories kept, one per symbol and row limit
+ * @param historyTtl      time a history is served before it is fetched again
+ * @param metaDataMaxSize metadata entries kept, one per symbol
+ * @param metaDataTtl     time metadata is served before it is fetched again
+ */
+@ConfigurationProperties(prefix = "live-data.cache")
+public record LiveDataCacheProperties(@DefaultValue("5000") long historyMaxSize,
+                                      @DefaultValue("10m") Duration historyTtl,
+                                      @DefaultValue("20000") long metaDataMaxSize,
+                                      @DefaultValue("1h") Duration metaDataTtl) {
+}
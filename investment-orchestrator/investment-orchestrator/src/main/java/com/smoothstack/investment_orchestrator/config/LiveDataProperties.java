@@ -0,0 +1,43 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection settings of the live-data-service client.
+ *
+ * @param url            base URL of the stocks API, resolved per environment
+ * @param connectTimeout time allowed to open a connection
+ * @param responseTimeout time allowed for each call to complete
+ * @param maxConnections pooled keep-alive connections to live-data-service
+ * @param maxIdleTime    time an idle pooled connection is kept open
+ * @param batchSize      symbols per batch request when fanning out multi-symbol calls
+ * @param concurrency    batch requests of one multi-symbol call in flight at once
+ */
+@ConfigurationProperties(prefix = "live-data")
+public record LiveDataProperties(@DefaultValue("http://localhost:9000/api/v1/stocks") String url,
+                                 @DefaultValue("2s") Duration connectTimeout,
+                                 @DefaultValue("5s") Duration responseTimeout,
+                                 @DefaultValue("50") int maxConnections,
+                                 @DefaultValue("30s") Duration maxIdleTime,
+                                 @DefaultValue("50") int batchSize,
+                                 @DefaultValue("4") int concurrency) {
+}
@@ -1,6 +1,7 @@
 package com.smoothstack.investment_orchestrator.controller;
 
 import com.smoothstack.investment_orchestrator.dto.AdviceAggregateModelDTO;
+import com.smoothstack.investment_orchestrator.dto.AggregatedOHLCDTO;
 import com.smoothstack.investment_orchestrator.dto.MetaDataDTO;
 import com.smoothstack.investment_orchestrator.dto.TimeSeriesDTO;
 import com.smoothstack.investment_orchestrator.serviceImpl.LiveDataService;
@@ -8,14 +9,20 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/stocks")
 @AllArgsConstructor
 @CrossOrigin(origins = "http://localhost:5173")
 public class StockController {
+    private static final int MAX_WINDOW_DAYS = 365;
+
     @Autowired
     private final LiveDataService lds;
 
@@ -35,6 +42,23 @@ public class StockController {
         return lds.getMetaData(symbol);
     }
 
+    @Operation(summary = "OHLC summaries of trailing windows",
+            description = "Open, high, low, close and volume of the latest N daily bars for each requested N")
+    @GetMapping("/ohlc/{symbol}")
+    public List<AggregatedOHLCDTO> getOhlcAggregates(
+            @Parameter(description = "Stock symbol, e.g., GOOGL or AAPL", example = "GOOGL")
+            @PathVariable String symbol,
+            @Parameter(description = "Window lengths in days", example = "5,10,15,30")
+            @RequestParam(defaultValue = "5,10,15,30") int[] windows) {
+        for (int days : windows) {
+            if (days < 1 || days > MAX_WINDOW_DAYS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "windows must be between 1 and " + MAX_WINDOW_DAYS + " days");
+            }
+        }
+        return lds.getAggregates(symbol, windows);
+    }
+
     @Operation(summary = "Aggregates information for LLM", description = "Aggregates information for LLM")
     @GetMapping("/aggregated/{symbol}/{investmentPortfolioId}")
     public ResponseEntity<AdviceAggregateModelDTO> getAggregatedStockData(
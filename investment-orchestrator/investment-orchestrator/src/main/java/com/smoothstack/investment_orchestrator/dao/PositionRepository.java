@@ -2,6 +2,7 @@ package com.smoothstack.investment_orchestrator.dao;
 
 import com.smoothstack.investment_orchestrator.model.Position;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +16,7 @@ public interface PositionRepository extends JpaRepository<Position, Integer> {
     Position findByInvestmentPortfolioIdAndTicker(Integer portfolioId, String ticker);
 
     Optional<List<Position>> findByInvestmentPortfolioId(Integer investmentPortfolioId);
+
+    @Query("SELECT DISTINCT p.ticker FROM Position p")
+    List<String> findDistinctTickers();
 }
\ No newline at end of file
@@ -5,5 +5,6 @@ public record AggregatedStockDataDTO(String symbol,
                                      AggregatedOHLCDTO fiveDaySummary,
                                      AggregatedOHLCDTO tenDaySummary,
                                      AggregatedOHLCDTO fifteenDaySummary,
-                                     AggregatedOHLCDTO thirtyDaySummary) {
+                                     AggregatedOHLCDTO thirtyDaySummary,
+                                     TechnicalIndicatorsDTO indicators) {
 }
\ No newline at end of file
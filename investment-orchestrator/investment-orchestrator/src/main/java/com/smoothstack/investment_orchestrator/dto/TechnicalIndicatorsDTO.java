@@ -0,0 +1,24 @@
+package com.smoothstack.investment_orchestrator.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Indicators as of the latest daily bar. Prices are in dollars, RSI from 0 to 100, and volatility and
+ * drawdowns are fractions; an indicator is null when there are not enough bars for it.
+ * <p>
+ * The SMAs, VWAP and volatility cover the number of latest bars in their names. The EMAs, RSI and
+ * drawdowns run over the latest 60 bars: the EMAs are seeded with the first of those closes, the RSI
+ * averages start with the changes after it, and drawdowns are measured from the highest close among them.
+ */
+public record TechnicalIndicatorsDTO(LocalDate asOf,
+                                     BigDecimal sma10,
+                                     BigDecimal sma20,
+                                     BigDecimal ema12,
+                                     BigDecimal ema26,
+                                     BigDecimal rsi14,
+                                     BigDecimal vwap20,
+                                     BigDecimal volatility20,
+                                     BigDecimal drawdown,
+                                     BigDecimal maxDrawdown) {
+}
@@ -24,7 +24,6 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Random;
 
 @Service
 public class AggregateHelpers {
@@ -57,11 +56,4 @@ public class AggregateHelpers {
 
         return new AggregatedOHLCDTO(startDate, endDate, open, high, low, close, totalVolume);
     }
-
-    public String generateSentiment(String symbol) {
-        // Todo: implement sentiment logic, currently just returns positive or negative based on a random number
-        Random rand = new Random();
-        int randomInt = rand.nextInt(2);
-        return randomInt == 0 ? "negative" : "positive";
-    }
 }
\ No newline at end of file
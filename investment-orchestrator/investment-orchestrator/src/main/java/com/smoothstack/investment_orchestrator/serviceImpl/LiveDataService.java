@@ -15,102 +15,141 @@
 
 package com.smoothstack.investment_orchestrator.serviceImpl;
 
+import com.smoothstack.investment_orchestrator.aggregate.OhlcAggregateEngine;
+import com.smoothstack.investment_orchestrator.client.LiveDataCache;
 import com.smoothstack.investment_orchestrator.dao.InvestmentPortfolioRepository;
 import com.smoothstack.investment_orchestrator.dao.PositionRepository;
 import com.smoothstack.investment_orchestrator.dto.*;
 import com.smoothstack.investment_orchestrator.helpers.AggregateHelpers;
 import com.smoothstack.investment_orchestrator.model.InvestmentPortfolio;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class LiveDataService {
-    private final RestTemplate restTemplate;
-    private static final String LIVE_DATA_BASE_URL = "http://localhost:9000/api/v1/stocks";
+    private final LiveDataCache liveDataCache;
+    // The history getAggregatedStockData summarizes: exactly the bars its indicators run over.
+    static final int AGGREGATION_DAYS = OhlcAggregateEngine.INDICATOR_BARS;
 
     private final AggregateHelpers aggH;
+    private final OhlcAggregateEngine ohlcEngine;
+    private final SignalService signalService;
 
     private final PositionRepository positionRepository;
     private final InvestmentPortfolioRepository iPR;
 
     @Autowired
-    public LiveDataService(RestTemplate restTemplate, PositionRepository positionRepository, AggregateHelpers aggH,
-                           InvestmentPortfolioRepository iPR) {
+    public LiveDataService(LiveDataCache liveDataCache, PositionRepository positionRepository, AggregateHelpers aggH,
+                           InvestmentPortfolioRepository iPR, OhlcAggregateEngine ohlcEngine,
+                           SignalService signalService) {
         this.aggH = aggH;
-        this.restTemplate = restTemplate;
+        this.ohlcEngine = ohlcEngine;
+        this.signalService = signalService;
+        this.liveDataCache = liveDataCache;
         this.positionRepository = positionRepository;
         this.iPR = iPR;
     }
 
     public TimeSeriesDTO getStockHistory(String symbol) {
-        String url = LIVE_DATA_BASE_URL + "/history/" + symbol;
-        try {
-            return restTemplate.getForObject(url, TimeSeriesDTO.class);
-        } catch (RestClientException e) {
-            throw new RuntimeException("Failed to fetch stock history for symbol: " + symbol, e);
-        }
+        return await(liveDataCache.getStockHistory(symbol, null));
+    }
+
+    /**
+     * Fetches only the latest {@code limit} daily rows of the symbol's history.
+     */
+    public TimeSeriesDTO getStockHistory(String symbol, int limit) {
+        return await(liveDataCache.getStockHistory(symbol, limit));
     }
 
     public MetaDataDTO getMetaData(String symbol) {
-        String url = LIVE_DATA_BASE_URL + "/meta-data/" + symbol;
-        try {
-            return restTemplate.getForObject(url, MetaDataDTO.class);
-        } catch (RestClientException e) {
-            throw new RuntimeException("Failed to fetch stock meta data for symbol: " + symbol, e);
-        }
+        return await(liveDataCache.getMetaData(symbol));
+    }
+
+    /**
+     * Fetches the latest {@code limit} daily rows of several symbols' histories, in concurrent batches
+     * for the symbols not cached yet.
+     */
+    public List<TimeSeriesDTO> getStockHistories(List<String> symbols, int limit) {
+        return await(liveDataCache.getStockHistories(symbols, limit));
+    }
+
+    public List<MetaDataDTO> getMetaData(List<String> symbols) {
+        return await(liveDataCache.getMetaData(symbols));
     }
 
+    /**
+     * The history is requested first, unless cached, and loads while the portfolio is read from the
+     * database.
+     */
     public AdviceAggregateModelDTO getAdvice(Integer investmentPortfolioId, String symbol) {
-        PortfolioAggregateDTO portfolioAggregateDTO = getPortfolioAggregate(investmentPortfolioId);
-        Optional<InvestmentPortfolio> investmentPortfolioOpt = iPR.findById(investmentPortfolioId);
-        if (investmentPortfolioOpt.isEmpty()) {
-            throw new RuntimeException("Could not find investment portfolio with id: " + investmentPortfolioId);
-        }
+        CompletableFuture<TimeSeriesDTO> history = liveDataCache.getStockHistory(symbol, AGGREGATION_DAYS);
+        InvestmentPortfolio investmentPortfolio = iPR.findById(investmentPortfolioId).orElseThrow(() ->
+                new RuntimeException("Could not find investment portfolio with id: " + investmentPortfolioId));
+        PortfolioAggregateDTO portfolioAggregateDTO = getPortfolioAggregate(investmentPortfolio);
 
-        Integer investorId = investmentPortfolioOpt.get().getInvestorId();
-        AggregatedStockDataDTO aggregatedStockDataDTO = getAggregatedStockData(symbol,
-                investorId);
+        AggregatedStockDataDTO aggregatedStockDataDTO = aggregate(symbol, await(history),
+                investmentPortfolio.getInvestorId());
         return new AdviceAggregateModelDTO(aggregatedStockDataDTO, portfolioAggregateDTO);
     }
 
     public AggregatedStockDataDTO getAggregatedStockData(String symbol, Integer investorId) {
-        TimeSeriesDTO historicalData = getStockHistory(symbol);
-
+        return aggregate(symbol, getStockHistory(symbol, AGGREGATION_DAYS), investorId);
+    }
 
-        List<TimeSeriesData> sortedData = historicalData.data().stream()
-                .sorted(Comparator.comparing(TimeSeriesData::getDate).reversed())
-                .toList();
+    /**
+     * OHLC summaries of the latest {@code days} daily bars of the symbol for each of the windows, in
+     * order.
+     *
+     * @throws ResponseStatusException 404 if the symbol has no history, 400 if a window is longer than it
+     */
+    public List<AggregatedOHLCDTO> getAggregates(String symbol, int... windows) {
+        int longest = Arrays.stream(windows).max().orElse(0);
+        if (longest > 0) {
+            List<TimeSeriesData> history = getStockHistory(symbol, longest).data();
+            if (history == null || history.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No history for symbol " + symbol);
+            }
+            if (history.size() < longest) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "windows must not exceed the " + history.size() + " days of history of " + symbol);
+            }
+            ohlcEngine.update(symbol, history);
+        }
+        return ohlcEngine.aggregates(symbol, windows);
+    }
 
-        AggregatedOHLCDTO fiveDayAggregate = aggH.aggregateOHLC(sortedData, 5);
-        AggregatedOHLCDTO tenDayAggregate = aggH.aggregateOHLC(sortedData, 10);
-        AggregatedOHLCDTO fifteenDayAggregate = aggH.aggregateOHLC(sortedData, 15);
-        AggregatedOHLCDTO thirtyDayAggregate = aggH.aggregateOHLC(sortedData, 30);
+    private AggregatedStockDataDTO aggregate(String symbol, TimeSeriesDTO historicalData, Integer investorId) {
+        ohlcEngine.update(symbol, historicalData.data());
+        List<AggregatedOHLCDTO> summaries = ohlcEngine.aggregates(symbol, 5, 10, 15, 30);
 
         return new AggregatedStockDataDTO(
                 symbol,
-                aggH.generateSentiment(symbol),
-                fiveDayAggregate,
-                tenDayAggregate,
-                fifteenDayAggregate,
-                thirtyDayAggregate
+                signalService.sentiment(symbol),
+                summaries.get(0),
+                summaries.get(1),
+                summaries.get(2),
+                summaries.get(3),
+                ohlcEngine.indicators(symbol)
         );
     }
 
-    private PortfolioAggregateDTO getPortfolioAggregate(Integer investmentPortfolioId) {
-        Optional<InvestmentPortfolio> ipo = iPR.findById(investmentPortfolioId);
-        if (ipo.isPresent()) {
-            InvestmentPortfolio ip = ipo.get();
-            return new PortfolioAggregateDTO(ip.getTotalInvested(), ip.getAmtAvailable(),
-                    this.getPosAgg(investmentPortfolioId));
-        } else {
-            throw new RuntimeException("Investment Portfolio with id: " + investmentPortfolioId + " not found");
+    private PortfolioAggregateDTO getPortfolioAggregate(InvestmentPortfolio ip) {
+        return new PortfolioAggregateDTO(ip.getTotalInvested(), ip.getAmtAvailable(), this.getPosAgg(ip.getInvestmentPortfolioId()));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
         }
     }
 
@@ -0,0 +1,126 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.investment_orchestrator.serviceImpl;
+
+import com.smoothstack.investment_orchestrator.aggregate.OhlcAggregateEngine;
+import com.smoothstack.investment_orchestrator.aggregate.Signal;
+import com.smoothstack.investment_orchestrator.aggregate.SignalTable;
+import com.smoothstack.investment_orchestrator.client.LiveDataCache;
+import com.smoothstack.investment_orchestrator.dao.PositionRepository;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the momentum {@link Signal} of every symbol held in a position or asked about within
+ * {@code live-data.signals.tracked-ttl-ms}, on a schedule, and publishes them as one versioned
+ * {@link SignalTable}.
+ * <p>
+ * The histories are fetched through the cache in batches, then merged and scored for all symbols in
+ * parallel, so a request reads its symbol's sentiment from the current table in O(1).
+ */
+@Service
+public class SignalService {
+    private static final Logger logger = LoggerFactory.getLogger(SignalService.class);
+
+    private final LiveDataCache liveDataCache;
+    private final OhlcAggregateEngine ohlcEngine;
+    private final PositionRepository positionRepository;
+
+    private final long trackedTtlMs;
+
+    // Symbols asked about, with the time they were last asked about; dropped by the refresh once expired.
+    private final Map<String, Long> tracked = new ConcurrentHashMap<>();
+    private volatile SignalTable table = SignalTable.EMPTY;
+
+    @Autowired
+    public SignalService(LiveDataCache liveDataCache, OhlcAggregateEngine ohlcEngine,
+                         PositionRepository positionRepository,
+                         @Value("${live-data.signals.tracked-ttl-ms:3600000}") long trackedTtlMs) {
+        this.liveDataCache = liveDataCache;
+        this.ohlcEngine = ohlcEngine;
+        this.positionRepository = positionRepository;
+        this.trackedTtlMs = trackedTtlMs;
+    }
+
+    public SignalTable table() {
+        return table;
+    }
+
+    /**
+     * The symbol's sentiment from the current table. A symbol not in it yet is scored from the bars the
+     * engine holds and picked up by the next refresh; without enough bars it is neutral.
+     */
+    public String sentiment(String symbol) {
+        tracked.put(symbol, System.currentTimeMillis());
+        Signal signal = table.get(symbol);
+        if (signal == null) {
+            signal = ohlcEngine.signal(symbol);
+        }
+        return signal == null ? Signal.NEUTRAL : signal.sentiment();
+    }
+
+    @Scheduled(initialDelayString = "${live-data.signals.initial-delay-ms:10000}",
+            fixedDelayString = "${live-data.signals.refresh-interval-ms:300000}")
+    public void refresh() {
+        long expired = System.currentTimeMillis() - trackedTtlMs;
+        tracked.values().removeIf(lastAsked -> lastAsked < expired);
+        Set<String> symbols = new LinkedHashSet<>(positionRepository.findDistinctTickers());
+        symbols.addAll(tracked.keySet());
+        if (symbols.isEmpty()) {
+            return;
+        }
+
+        List<TimeSeriesDTO> histories;
+        try {
+            // The same history getAggregatedStockData reads, so both share cache entries.
+            histories = liveDataCache.getStockHistories(new ArrayList<>(symbols), LiveDataService.AGGREGATION_DAYS)
+                    .join();
+        } catch (RuntimeException e) {
+            logger.warn("Could not fetch histories for {} symbols, keeping signals version {}", symbols.size(),
+                    table.version(), e);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Map<String, Signal> signals = histories.parallelStream()
+                .filter(history -> history.symbol() != null && !history.data().isEmpty())
+                .map(history -> {
+                    ohlcEngine.update(history.symbol(), history.data());
+                    return Map.entry(history.symbol(), ohlcEngine.signal(history.symbol()));
+                })
+                .filter(entry -> entry.getValue() != null)
+                .collect(Collectors.toConcurrentMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a));
+
+        table = table.next(signals, Instant.now());
+        logger.info("Published signals version {} for {} of {} symbols in {} ms", table.version(), signals.size(),
+                symbols.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,105 @@
+package com.smoothstack.investment_orchestrator.benchmark;
+
+import com.smoothstack.investment_orchestrator.aggregate.OhlcAggregateEngine;
+import com.smoothstack.investment_orchestrator.dto.AggregatedOHLCDTO;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesData;
+import com.smoothstack.investment_orchestrator.helpers.AggregateHelpers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the 5/10/15/30-day summaries of one request: sorting the history and rescanning it with
+ * {@link AggregateHelpers#aggregateOHLC} per window, versus merging the history into the
+ * {@link OhlcAggregateEngine} and querying its windows. {@code newDay} measures the engine when every
+ * request brings one more daily bar.
+ * <p>
+ * Run with {@code mvn test-compile} followed by this class's {@code main} method.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OhlcAggregationBenchmark {
+    private static final String SYMBOL = "AAPL";
+    private static final int[] WINDOWS = {5, 10, 15, 30};
+
+    @Param({"30", "365"})
+    public int days;
+
+    private final AggregateHelpers helpers = new AggregateHelpers();
+    private final OhlcAggregateEngine engine = new OhlcAggregateEngine();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private List<TimeSeriesData> history;
+    private TimeSeriesData lastBar;
+    private LocalDate nextDate;
+    private double close = 100;
+
+    @Setup
+    public void setUp() {
+        history = new ArrayList<>(days);
+        nextDate = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < days; i++) {
+            history.add(nextBar());
+        }
+        lastBar = history.get(days - 1);
+        engine.update(SYMBOL, history);
+    }
+
+    @Benchmark
+    public void sortAndScan(Blackhole blackhole) {
+        List<TimeSeriesData> sorted = history.stream()
+                .sorted(Comparator.comparing(TimeSeriesData::getDate).reversed())
+                .toList();
+        for (int window : WINDOWS) {
+            blackhole.consume(helpers.aggregateOHLC(sorted, window));
+        }
+    }
+
+    @Benchmark
+    public List<AggregatedOHLCDTO> engine() {
+        engine.update(SYMBOL, history);
+        return engine.aggregates(SYMBOL, WINDOWS);
+    }
+
+    @Benchmark
+    public List<AggregatedOHLCDTO> newDay() {
+        TimeSeriesData bar = nextBar();
+        engine.update(SYMBOL, List.of(lastBar, bar));
+        lastBar = bar;
+        return engine.aggregates(SYMBOL, WINDOWS);
+    }
+
+    private TimeSeriesData nextBar() {
+        double open = close;
+        close = Math.max(1, close * (1 + 0.02 * random.nextGaussian()));
+        double high = Math.max(open, close) * (1 + 0.01 * random.nextDouble());
+        double low = Math.min(open, close) * (1 - 0.01 * random.nextDouble());
+        TimeSeriesData bar = new TimeSeriesData(nextDate, price(open), price(close), price(high), price(low),
+                random.nextLong(1_000, 100_000));
+        nextDate = nextDate.plusDays(1);
+        return bar;
+    }
+
+    private static BigDecimal price(double value) {
+        return BigDecimal.valueOf(Math.round(value * 100), 2);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OhlcAggregationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
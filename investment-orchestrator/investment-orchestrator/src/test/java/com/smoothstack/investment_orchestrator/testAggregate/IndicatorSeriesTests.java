@@ -0,0 +1,96 @@
+package com.smoothstack.investment_orchestrator.testAggregate;
+
+import com.smoothstack.investment_orchestrator.aggregate.IndicatorSeries;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndicatorSeriesTests {
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void windowIndicatorsMatchHandComputedValues() {
+        IndicatorSeries series = series(new double[]{10, 11, 12, 11, 13}, new double[]{1, 2, 3, 4, 5});
+
+        assertEquals(12, series.sma(3), EPSILON);
+        assertEquals((11 * 4 + 13 * 5) / 9.0, series.vwap(2), EPSILON);
+        assertEquals(Math.log(13 / 10.0), series.momentum(4), EPSILON);
+        double first = Math.log(11 / 12.0);
+        double second = Math.log(13 / 11.0);
+        assertEquals(Math.sqrt((first - second) * (first - second) / 2 * 365), series.volatility(2), EPSILON);
+        assertTrue(Double.isNaN(series.sma(6)));
+        assertTrue(Double.isNaN(series.volatility(5)));
+    }
+
+    @Test
+    void drawdownsAreMeasuredFromThePeakClose() {
+        IndicatorSeries series = series(new double[]{10, 12, 9, 11}, null);
+
+        assertEquals(1 - 11 / 12.0, series.drawdown(), EPSILON);
+        assertEquals(1 - 9 / 12.0, series.maxDrawdown(), EPSILON);
+    }
+
+    @Test
+    void emaIsSeededWithTheFirstClose() {
+        double[] closes = new double[IndicatorSeries.EMA_SHORT];
+        Arrays.fill(closes, 100);
+        closes[closes.length - 1] = 113;
+        IndicatorSeries series = series(closes, null);
+
+        // 100 + 2 / 13 * (113 - 100)
+        assertEquals(102, series.ema(IndicatorSeries.EMA_SHORT), EPSILON);
+        assertTrue(Double.isNaN(series.ema(IndicatorSeries.EMA_LONG)));
+    }
+
+    @Test
+    void rsiAveragesTheFirstChangesThenSmoothsThem() {
+        double[] closes = new double[IndicatorSeries.RSI_PERIOD + 2];
+        for (int i = 0; i <= IndicatorSeries.RSI_PERIOD; i++) {
+            closes[i] = i % 2 == 0 ? 100 : 101;
+        }
+        closes[closes.length - 1] = closes[closes.length - 2] + 2;
+
+        IndicatorSeries series = series(closes, null);
+        // Seven gains and seven losses of one average to 0.5 each; the last gain of two is smoothed in.
+        assertEquals(100 * 8.5 / 15, series.rsi(), EPSILON);
+
+        series.removeLast();
+        assertEquals(50, series.rsi(), EPSILON);
+    }
+
+    @Test
+    void removeLastThenAppendMatchesASeriesBuiltWithoutTheRemovedBar() {
+        double[] closes = {10, 11, 12, 11, 13, 14, 12, 15, 16, 15, 17, 18, 17, 19, 20, 18, 21, 22, 21, 23};
+        IndicatorSeries series = series(closes, null);
+        series.removeLast();
+        series.append(30, 30, 30, 1);
+
+        closes[closes.length - 1] = 30;
+        IndicatorSeries expected = series(closes, null);
+        assertEquals(expected.ema(IndicatorSeries.EMA_SHORT), series.ema(IndicatorSeries.EMA_SHORT), EPSILON);
+        assertEquals(expected.rsi(), series.rsi(), EPSILON);
+        assertEquals(expected.volatility(10), series.volatility(10), EPSILON);
+        assertEquals(expected.maxDrawdown(), series.maxDrawdown(), EPSILON);
+    }
+
+    @Test
+    void aFullSeriesRejectsMoreBars() {
+        IndicatorSeries series = new IndicatorSeries(2);
+        series.append(1, 1, 1, 1);
+        series.append(1, 1, 1, 1);
+
+        assertThrows(IllegalStateException.class, () -> series.append(1, 1, 1, 1));
+    }
+
+    private static IndicatorSeries series(double[] closes, double[] volumes) {
+        IndicatorSeries series = new IndicatorSeries(closes.length);
+        for (int i = 0; i < closes.length; i++) {
+            series.append(closes[i], closes[i], closes[i], volumes == null ? 1 : volumes[i]);
+        }
+        return series;
+    }
+}
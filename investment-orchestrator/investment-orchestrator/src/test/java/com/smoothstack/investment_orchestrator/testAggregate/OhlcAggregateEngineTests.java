@@ -0,0 +1,150 @@
+package com.smoothstack.investment_orchestrator.testAggregate;
+
+import com.smoothstack.investment_orchestrator.aggregate.OhlcAggregateEngine;
+import com.smoothstack.investment_orchestrator.dto.AggregatedOHLCDTO;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesData;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OhlcAggregateEngineTests {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    private final OhlcAggregateEngine engine = new OhlcAggregateEngine();
+
+    @Test
+    void mergingReplacesTheNewestBarAndAppendsLaterOnes() {
+        engine.update("AAPL", history(0, 10, 100));
+        List<TimeSeriesData> next = history(5, 6, 100);
+        // Day 9 was still open when first fetched.
+        next.get(4).setHigh(new BigDecimal("150.00"));
+        next.get(4).setClose(new BigDecimal("150.00"));
+        engine.update("AAPL", next);
+
+        AggregatedOHLCDTO all = engine.aggregates("AAPL", 11).get(0);
+        assertEquals(FIRST_DAY, all.performanceStartDate());
+        assertEquals(FIRST_DAY.plusDays(10), all.performanceEndDate());
+        assertEquals(11 * 10, all.aggregateVolume());
+        assertEquals(new BigDecimal("110.00"), all.close());
+        assertEquals(new BigDecimal("150.00"), engine.aggregates("AAPL", 2).get(0).high());
+        assertEquals(new BigDecimal("108.00"), engine.aggregates("AAPL", 3).get(0).open());
+    }
+
+    @Test
+    void unsortedHistoriesAreMergedInDateOrder() {
+        List<TimeSeriesData> history = history(0, 5, 100);
+        Collections.reverse(history);
+        engine.update("AAPL", history);
+
+        AggregatedOHLCDTO all = engine.aggregates("AAPL", 5).get(0);
+        assertEquals(new BigDecimal("100.00"), all.open());
+        assertEquals(new BigDecimal("104.00"), all.close());
+    }
+
+    @Test
+    void aHistoryThatDiffersOnTheAnchorBarReplacesTheSeries() {
+        engine.update("AAPL", history(0, 10, 100));
+        // A regenerated history: same days, different prices.
+        engine.update("AAPL", history(5, 5, 200));
+
+        assertEquals(new BigDecimal("205.00"), engine.aggregates("AAPL", 5).get(0).open());
+        assertThrows(IllegalArgumentException.class, () -> engine.aggregates("AAPL", 6));
+    }
+
+    @Test
+    void aHistoryReachingFurtherBackReplacesTheSeries() {
+        engine.update("AAPL", history(5, 5, 100));
+        engine.update("AAPL", history(0, 10, 100));
+
+        AggregatedOHLCDTO all = engine.aggregates("AAPL", 10).get(0);
+        assertEquals(FIRST_DAY, all.performanceStartDate());
+        assertEquals(new BigDecimal("100.00"), all.open());
+    }
+
+    @Test
+    void aHistoryWithAGapReplacesTheSeries() {
+        engine.update("AAPL", history(0, 5, 100));
+        engine.update("AAPL", history(7, 3, 100));
+
+        assertEquals(FIRST_DAY.plusDays(7), engine.aggregates("AAPL", 3).get(0).performanceStartDate());
+        assertThrows(IllegalArgumentException.class, () -> engine.aggregates("AAPL", 4));
+    }
+
+    @Test
+    void unknownSymbolsHaveNoAggregatesOrIndicators() {
+        assertThrows(IllegalArgumentException.class, () -> engine.aggregates("NONE", 5));
+        assertNull(engine.indicators("NONE"));
+        assertNull(engine.signal("NONE"));
+    }
+
+    @Test
+    void indicatorsDependOnlyOnTheLatestBarsWhateverWasMergedBefore() {
+        List<TimeSeriesData> longHistory = wavyHistory(0, 300);
+        int window = OhlcAggregateEngine.INDICATOR_BARS;
+        List<TimeSeriesData> latest = longHistory.subList(longHistory.size() - window, longHistory.size());
+
+        // One engine has been up for a long time and followed the history day by day.
+        OhlcAggregateEngine longRunning = new OhlcAggregateEngine();
+        longRunning.update("AAPL", longHistory.subList(0, 200));
+        for (int end = 200; end <= longHistory.size(); end++) {
+            longRunning.update("AAPL", longHistory.subList(Math.max(0, end - window), end));
+        }
+        // Another one just started.
+        OhlcAggregateEngine fresh = new OhlcAggregateEngine();
+        fresh.update("AAPL", latest);
+
+        assertEquals(fresh.indicators("AAPL"), longRunning.indicators("AAPL"));
+        assertEquals(fresh.signal("AAPL"), longRunning.signal("AAPL"));
+    }
+
+    @Test
+    void replacingTheNewestBarGivesTheSameIndicatorsAsAFreshMerge() {
+        List<TimeSeriesData> latest = wavyHistory(0, OhlcAggregateEngine.INDICATOR_BARS);
+        List<TimeSeriesData> intraday = wavyHistory(0, OhlcAggregateEngine.INDICATOR_BARS);
+        TimeSeriesData open = intraday.get(intraday.size() - 1);
+        open.setHigh(open.getHigh().add(BigDecimal.TEN));
+        open.setClose(open.getClose().add(BigDecimal.TEN));
+        engine.update("AAPL", intraday);
+        engine.update("AAPL", latest);
+
+        OhlcAggregateEngine fresh = new OhlcAggregateEngine();
+        fresh.update("AAPL", latest);
+        assertEquals(fresh.indicators("AAPL"), engine.indicators("AAPL"));
+    }
+
+    /**
+     * Bars whose closes rise and fall, so every indicator moves.
+     */
+    private static List<TimeSeriesData> wavyHistory(int firstDay, int days) {
+        List<TimeSeriesData> bars = new ArrayList<>();
+        for (int i = firstDay; i < firstDay + days; i++) {
+            BigDecimal close = BigDecimal.valueOf(100 + 10 * Math.sin(i / 5.0) + i * 0.1)
+                    .setScale(2, RoundingMode.HALF_UP);
+            bars.add(new TimeSeriesData(FIRST_DAY.plusDays(i), close, close, close.add(BigDecimal.ONE),
+                    close.subtract(BigDecimal.ONE), 1000L + i));
+        }
+        return bars;
+    }
+
+    /**
+     * {@code days} daily bars from {@code FIRST_DAY + firstDay}, each at {@code price} plus its day
+     * number in dollars with a volume of 10, so histories with the same price agree where they overlap.
+     */
+    static List<TimeSeriesData> history(int firstDay, int days, int price) {
+        List<TimeSeriesData> bars = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            BigDecimal close = BigDecimal.valueOf(price + firstDay + i).setScale(2);
+            bars.add(new TimeSeriesData(FIRST_DAY.plusDays(firstDay + i), close, close, close, close, 10L));
+        }
+        return bars;
+    }
+}
@@ -0,0 +1,113 @@
+package com.smoothstack.investment_orchestrator.testAggregate;
+
+import com.smoothstack.investment_orchestrator.aggregate.OhlcSeries;
+import com.smoothstack.investment_orchestrator.dto.AggregatedOHLCDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OhlcSeriesTests {
+    private static final long FIRST_DAY = LocalDate.of(2024, 1, 1).toEpochDay();
+
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Test
+    void windowsMatchABruteForceFold() {
+        long[][] bars = randomBars(300);
+        OhlcSeries series = series(bars, bars.length, 1024);
+
+        for (int days = 1; days <= bars.length; days++) {
+            assertEquals(fold(bars, bars.length - days, bars.length - 1), series.aggregate(days), "days " + days);
+        }
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(bars.length);
+            int to = from + random.nextInt(bars.length - from);
+            assertEquals(fold(bars, from, to), series.aggregate(from, to), "bars " + from + " to " + to);
+        }
+    }
+
+    @Test
+    void windowsLongerThanTheSeriesAreRejected() {
+        OhlcSeries series = series(randomBars(5), 5, 1024);
+
+        assertThrows(IllegalArgumentException.class, () -> series.aggregate(6));
+        assertThrows(IllegalArgumentException.class, () -> series.aggregate(0));
+    }
+
+    @Test
+    void removeLastThenAppendMatchesASeriesBuiltWithoutTheRemovedBar() {
+        long[][] bars = randomBars(100);
+        OhlcSeries series = series(bars, bars.length, 1024);
+        long[][] replaced = randomBars(1);
+        replaced[0][0] = bars[bars.length - 1][0];
+
+        series.removeLast();
+        append(series, replaced[0]);
+        bars[bars.length - 1] = replaced[0];
+
+        OhlcSeries expected = series(bars, bars.length, 1024);
+        for (int days = 1; days <= bars.length; days++) {
+            assertEquals(expected.aggregate(days), series.aggregate(days), "days " + days);
+        }
+    }
+
+    @Test
+    void aFullSeriesDropsItsOlderHalf() {
+        long[][] bars = randomBars(9);
+        OhlcSeries series = series(bars, bars.length, 8);
+
+        // Full at eight bars, the ninth drops the first four.
+        assertEquals(5, series.size());
+        assertEquals(LocalDate.ofEpochDay(bars[4][0]), series.firstDate());
+        for (int days = 1; days <= 5; days++) {
+            assertEquals(fold(bars, bars.length - days, bars.length - 1), series.aggregate(days), "days " + days);
+        }
+    }
+
+    /**
+     * Bars as {epochDay, open, high, low, close, volume}, prices in cents.
+     */
+    private long[][] randomBars(int count) {
+        long[][] bars = new long[count][];
+        long close = 10_000;
+        for (int i = 0; i < count; i++) {
+            long open = Math.max(1, close + random.nextInt(-200, 201));
+            close = Math.max(1, open + random.nextInt(-500, 501));
+            long high = Math.max(open, close) + random.nextInt(300);
+            long low = Math.max(1, Math.min(open, close) - random.nextInt(300));
+            bars[i] = new long[]{FIRST_DAY + i, open, high, low, close, random.nextInt(100_000)};
+        }
+        return bars;
+    }
+
+    private static OhlcSeries series(long[][] bars, int count, int maxBars) {
+        OhlcSeries series = new OhlcSeries(maxBars);
+        for (int i = 0; i < count; i++) {
+            append(series, bars[i]);
+        }
+        return series;
+    }
+
+    private static void append(OhlcSeries series, long[] bar) {
+        series.append(bar[0], bar[1], bar[2], bar[3], bar[4], bar[5]);
+    }
+
+    private static AggregatedOHLCDTO fold(long[][] bars, int from, int to) {
+        long high = Long.MIN_VALUE;
+        long low = Long.MAX_VALUE;
+        long volume = 0;
+        for (int i = from; i <= to; i++) {
+            high = Math.max(high, bars[i][2]);
+            low = Math.min(low, bars[i][3]);
+            volume += bars[i][5];
+        }
+        return new AggregatedOHLCDTO(LocalDate.ofEpochDay(bars[from][0]), LocalDate.ofEpochDay(bars[to][0]),
+                BigDecimal.valueOf(bars[from][1], 2), BigDecimal.valueOf(high, 2), BigDecimal.valueOf(low, 2),
+                BigDecimal.valueOf(bars[to][4], 2), volume);
+    }
+}
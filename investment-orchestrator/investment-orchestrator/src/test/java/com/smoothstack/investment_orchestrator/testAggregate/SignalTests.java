@@ -0,0 +1,93 @@
+package com.smoothstack.investment_orchestrator.testAggregate;
+
+import com.smoothstack.investment_orchestrator.aggregate.OhlcAggregateEngine;
+import com.smoothstack.investment_orchestrator.aggregate.Signal;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesData;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SignalTests {
+    // Daily log returns alternate around their mean by this much.
+    private static final double SWING = 0.01;
+
+    private final OhlcAggregateEngine engine = new OhlcAggregateEngine();
+
+    @Test
+    void scoresJustAboveTheThresholdArePositive() {
+        Signal signal = signal(0.26);
+
+        assertEquals(0.26, signal.score(), 1e-3);
+        assertEquals(Signal.POSITIVE, signal.sentiment());
+    }
+
+    @Test
+    void scoresJustBelowTheThresholdAreNeutral() {
+        assertEquals(Signal.NEUTRAL, signal(0.24).sentiment());
+        assertEquals(Signal.NEUTRAL, signal(-0.24).sentiment());
+    }
+
+    @Test
+    void scoresJustBeyondTheNegativeThresholdAreNegative() {
+        assertEquals(Signal.NEGATIVE, signal(-0.26).sentiment());
+    }
+
+    @Test
+    void aSteadyClimbIsPositive() {
+        List<TimeSeriesData> bars = new ArrayList<>();
+        for (int i = 0; i <= Signal.DAYS; i++) {
+            bars.add(bar(i, BigDecimal.valueOf(100 + i)));
+        }
+        engine.update("AAPL", bars);
+
+        assertEquals(Signal.POSITIVE, engine.signal("AAPL").sentiment());
+    }
+
+    @Test
+    void tooFewBarsGiveNoSignal() {
+        List<TimeSeriesData> bars = new ArrayList<>();
+        for (int i = 0; i < Signal.DAYS; i++) {
+            bars.add(bar(i, BigDecimal.valueOf(100 + i)));
+        }
+        engine.update("AAPL", bars);
+
+        assertNull(engine.signal("AAPL"));
+    }
+
+    /**
+     * The signal of {@link Signal#DAYS} returns alternating {@code SWING} above and below a mean chosen
+     * so the score comes out at {@code score}.
+     * <p>
+     * Their sum is {@code DAYS * mean} and their sample standard deviation {@code SWING * sqrt(DAYS /
+     * (DAYS - 1))}, so the score {@code tanh(momentum / (deviation * sqrt(DAYS)) / 2)} is
+     * {@code tanh(mean * sqrt(DAYS - 1) / SWING / 2)}.
+     */
+    private Signal signal(double score) {
+        double mean = 2 * atanh(score) * SWING / Math.sqrt(Signal.DAYS - 1);
+        List<TimeSeriesData> bars = new ArrayList<>();
+        double close = 10_000;
+        bars.add(bar(0, BigDecimal.valueOf(close)));
+        for (int i = 1; i <= Signal.DAYS; i++) {
+            close *= Math.exp(mean + (i % 2 == 0 ? SWING : -SWING));
+            bars.add(bar(i, BigDecimal.valueOf(close)));
+        }
+        engine.update("AAPL", bars);
+        return engine.signal("AAPL");
+    }
+
+    private static TimeSeriesData bar(int day, BigDecimal close) {
+        BigDecimal price = close.setScale(2, RoundingMode.HALF_UP);
+        return new TimeSeriesData(LocalDate.of(2024, 1, 1).plusDays(day), price, price, price, price, 10L);
+    }
+
+    private static double atanh(double x) {
+        return 0.5 * Math.log((1 + x) / (1 - x));
+    }
+}
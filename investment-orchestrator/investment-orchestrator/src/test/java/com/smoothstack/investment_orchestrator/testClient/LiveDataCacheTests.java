@@ -0,0 +1,82 @@
+package com.smoothstack.investment_orchestrator.testClient;
+
+import com.smoothstack.investment_orchestrator.client.LiveDataCache;
+import com.smoothstack.investment_orchestrator.client.LiveDataClient;
+import com.smoothstack.investment_orchestrator.config.LiveDataCacheProperties;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LiveDataCacheTests {
+    private LiveDataClient client;
+    private LiveDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(LiveDataClient.class);
+        cache = new LiveDataCache(client, new LiveDataCacheProperties(100, Duration.ofMinutes(10), 100,
+                Duration.ofHours(1)), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void aHistoryIsFetchedOncePerSymbolAndLimit() {
+        TimeSeriesDTO latest = history("AAPL");
+        TimeSeriesDTO full = history("AAPL");
+        when(client.getStockHistory("AAPL", 60)).thenReturn(Mono.just(latest));
+        when(client.getStockHistory("AAPL", null)).thenReturn(Mono.just(full));
+
+        assertSame(latest, cache.getStockHistory("AAPL", 60).join());
+        assertSame(latest, cache.getStockHistory("AAPL", 60).join());
+        assertSame(full, cache.getStockHistory("AAPL", null).join());
+
+        verify(client, times(1)).getStockHistory("AAPL", 60);
+        verify(client, times(1)).getStockHistory("AAPL", null);
+    }
+
+    @Test
+    void missingSymbolsAreFetchedTogetherAndReturnedInOrder() {
+        when(client.getStockHistory("AAPL", 60)).thenReturn(Mono.just(history("AAPL")));
+        cache.getStockHistory("AAPL", 60).join();
+        when(client.getStockHistories(List.of("MSFT", "GOOGL"), 60))
+                .thenReturn(Mono.just(List.of(history("GOOGL"), history("MSFT"))));
+
+        List<TimeSeriesDTO> histories = cache.getStockHistories(List.of("MSFT", "AAPL", "GOOGL", "MSFT"), 60).join();
+
+        assertEquals(List.of("MSFT", "AAPL", "GOOGL"), histories.stream().map(TimeSeriesDTO::symbol).toList());
+        verify(client, times(1)).getStockHistories(anyList(), eq(60));
+    }
+
+    @Test
+    void aFailedFetchIsNotCached() {
+        when(client.getStockHistory("AAPL", 60))
+                .thenReturn(Mono.error(new RuntimeException("live-data-service is down")))
+                .thenReturn(Mono.just(history("AAPL")));
+
+        assertThrows(CompletionException.class, () -> cache.getStockHistory("AAPL", 60).join());
+        assertEquals("AAPL", cache.getStockHistory("AAPL", 60).join().symbol());
+        verify(client, times(2)).getStockHistory("AAPL", 60);
+        verify(client, never()).getStockHistory(anyString(), eq(null));
+    }
+
+    private static TimeSeriesDTO history(String symbol) {
+        return new TimeSeriesDTO(symbol, List.of());
+    }
+}
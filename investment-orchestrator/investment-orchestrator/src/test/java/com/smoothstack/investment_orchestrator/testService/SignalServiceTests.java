@@ -0,0 +1,84 @@
+package com.smoothstack.investment_orchestrator.testService;
+
+import com.smoothstack.investment_orchestrator.aggregate.OhlcAggregateEngine;
+import com.smoothstack.investment_orchestrator.aggregate.Signal;
+import com.smoothstack.investment_orchestrator.client.LiveDataCache;
+import com.smoothstack.investment_orchestrator.dao.PositionRepository;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesDTO;
+import com.smoothstack.investment_orchestrator.dto.TimeSeriesData;
+import com.smoothstack.investment_orchestrator.serviceImpl.SignalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SignalServiceTests {
+    private LiveDataCache liveDataCache;
+    private PositionRepository positionRepository;
+
+    @BeforeEach
+    void setUp() {
+        liveDataCache = mock(LiveDataCache.class);
+        positionRepository = mock(PositionRepository.class);
+        when(positionRepository.findDistinctTickers()).thenReturn(List.of());
+    }
+
+    @Test
+    void refreshScoresTheSymbolsAskedAboutAndPublishesANewTable() {
+        SignalService service = new SignalService(liveDataCache, new OhlcAggregateEngine(), positionRepository,
+                60_000);
+        when(liveDataCache.getStockHistories(eq(List.of("AAPL")), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(climbing("AAPL"))));
+
+        assertEquals(Signal.NEUTRAL, service.sentiment("AAPL"));
+        service.refresh();
+
+        assertEquals(1, service.table().version());
+        assertEquals(Signal.POSITIVE, service.sentiment("AAPL"));
+    }
+
+    @Test
+    void symbolsNotAskedAboutWithinTheTtlAreNoLongerRefreshed() throws InterruptedException {
+        SignalService service = new SignalService(liveDataCache, new OhlcAggregateEngine(), positionRepository, 1);
+
+        service.sentiment("AAPL");
+        Thread.sleep(5);
+        service.refresh();
+
+        verify(liveDataCache, never()).getStockHistories(anyList(), anyInt());
+    }
+
+    @Test
+    void heldSymbolsAreAlwaysRefreshed() {
+        SignalService service = new SignalService(liveDataCache, new OhlcAggregateEngine(), positionRepository, 1);
+        when(positionRepository.findDistinctTickers()).thenReturn(List.of("MSFT"));
+        when(liveDataCache.getStockHistories(eq(List.of("MSFT")), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(climbing("MSFT"))));
+
+        service.refresh();
+
+        assertEquals(Signal.POSITIVE, service.table().get("MSFT").sentiment());
+    }
+
+    private static TimeSeriesDTO climbing(String symbol) {
+        List<TimeSeriesData> bars = new ArrayList<>();
+        for (int i = 0; i <= Signal.DAYS; i++) {
+            BigDecimal close = BigDecimal.valueOf(100 + i).setScale(2);
+            bars.add(new TimeSeriesData(LocalDate.of(2024, 1, 1).plusDays(i), close, close, close, close, 10L));
+        }
+        return new TimeSeriesDTO(symbol, bars);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "live-data.history")
+public class HistoryProperties {
+    /**
+     * Days of synthetic history generated per symbol, ending today.
+     */
+    private int days = 365;
+
+    /**
+     * Symbols to generate history for, in ticker order; 0 generates it for every stock.
+     */
+    private int symbols = 0;
+
+    /**
+     * Parallel {@code COPY} streams used to load the generated rows.
+     */
+    private int loaderThreads = 4;
+
+    /**
+     * Price model used to generate history: {@code gbm}, {@code jump-diffusion} or {@code sector-factor}.
+     */
+    private String model = "gbm";
+
+    /**
+     * Seed of the generator; the same seed and stock universe always produce the same history.
+     */
+    private long seed = 42;
+
+    /**
+     * Annualized drift and volatility of daily log returns.
+     */
+    private double drift = 0.07;
+    private double volatility = 0.25;
+
+    /**
+     * Expected jumps per year and the mean and standard deviation of a jump's log return, for
+     * {@code jump-diffusion}.
+     */
+    private double jumpIntensity = 3;
+    private double jumpMean = -0.02;
+    private double jumpVolatility = 0.06;
+
+    /**
+     * Correlation of each stock with its GICS sector's factor, for {@code sector-factor}.
+     */
+    private double sectorCorrelation = 0.6;
+}
@@ -0,0 +1,50 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.config;
+
+import com.smoothstack.live_data.websocket.SlowConsumerPolicy;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "live-data.stream")
+public class StreamProperties {
+    /**
+     * Frames a session may have waiting to be sent before the slow-consumer policy applies.
+     */
+    private int maxQueuedFrames = 64;
+
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.CONFLATE;
+
+    /**
+     * Threads that write queued frames to the sessions.
+     */
+    private int senderThreads = 4;
+
+    /**
+     * Longest a single frame write may block before the session is closed, in milliseconds.
+     */
+    private long sendTimeLimitMs = 2000;
+
+    /**
+     * Price updates kept in the tick journal for clients resuming from a sequence number; rounded up to
+     * a power of two.
+     */
+    private int journalCapacity = 131072;
+}
@@ -0,0 +1,68 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.smoothstack.live_data.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "live-data.ticks")
+public class TickProperties {
+    /**
+     * Time between two ticks of the simulation, in milliseconds.
+     */
+    private long intervalMs = 250;
+
+    /**
+     * Number of worker threads the symbol universe is sharded across.
+     */
+    private int workers = 2;
+
+    /**
+     * Period the drift and volatility percentages are expressed over, in seconds.
+     */
+    private int timeFrameSeconds = 3600;
+
+    private double drift = 0.02;
+    private double volatility = 0.05;
+
+    /**
+     * Per-symbol overrides of {@link #drift} and {@link #volatility}.
+     */
+    private Map<String, SymbolParams> symbols = new HashMap<>();
+
+    @Getter
+    @Setter
+    public static class SymbolParams {
+        private Double drift;
+        private Double volatility;
+    }
+
+    public double driftFor(String symbol) {
+        SymbolParams params = symbols.get(symbol);
+        return params != null && params.getDrift() != null ? params.getDrift() : drift;
+    }
+
+    public double volatilityFor(String symbol) {
+        SymbolParams params = symbols.get(symbol);
+        return params != null && params.getVolatility() != null ? params.getVolatility() : volatility;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "live-data.tick-store")
+public class TickStoreProperties {
+    /**
+     * Whether ticks are written to disk so bars survive restarts. Off by default: with the whole
+     * universe ticking the store writes several gigabytes a day.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding one segment file of ticks per UTC day; relative paths resolve against the
+     * working directory.
+     */
+    private String directory = System.getProperty("java.io.tmpdir") + "/live-data/ticks";
+
+    /**
+     * How often the writer drains the tick journal into the current segment, in milliseconds.
+     */
+    private long pollIntervalMs = 100;
+
+    /**
+     * Days of segment files kept on disk; hourly bars are kept for as long.
+     */
+    private int retentionDays = 2;
+
+    /**
+     * Hours of one-minute bars kept in memory.
+     */
+    private int minuteBarHours = 24;
+}
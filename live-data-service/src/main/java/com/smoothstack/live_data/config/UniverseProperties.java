@@ -0,0 +1,42 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "live-data.universe")
+public class UniverseProperties {
+    /**
+     * Spring resource location of the stock universe CSV, e.g. {@code classpath:stocks_with_prices.csv}
+     * or {@code file:/data/universe.csv}.
+     */
+    private String location = "classpath:stocks_with_prices.csv";
+
+    /**
+     * Rows upserted per batch.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Threads upserting batches while the file is still being parsed.
+     */
+    private int writerThreads = 2;
+}
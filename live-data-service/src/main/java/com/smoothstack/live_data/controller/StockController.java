@@ -15,26 +15,51 @@
 
 package com.smoothstack.live_data.controller;
 
+import com.smoothstack.live_data.dto.IntradayDTO;
 import com.smoothstack.live_data.dto.MetaDataDTO;
-import com.smoothstack.live_data.dto.TimeSeriesDTO;
+import com.smoothstack.live_data.dto.StockSearchResultDTO;
 import com.smoothstack.live_data.service.HistoricalDataService;
+import com.smoothstack.live_data.service.IntradayService;
 import com.smoothstack.live_data.service.MetaDataService;
+import com.smoothstack.live_data.service.PriceStreamService;
+import com.smoothstack.live_data.service.StockSearchService;
+import com.smoothstack.live_data.store.HistoryQuery;
+import com.smoothstack.live_data.store.HistoryResolution;
+import com.smoothstack.live_data.store.MetaDataIndex;
 import com.smoothstack.live_data.websocket.StockWebSocketHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/stocks")
 @Configuration
 @EnableWebSocket
 public class StockController implements WebSocketConfigurer {
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     @Autowired
     private StockWebSocketHandler stockWebSocketHandler;
 
@@ -44,14 +69,100 @@ public class StockController implements WebSocketConfigurer {
     @Autowired
     private MetaDataService mds;
 
+    @Autowired
+    private PriceStreamService priceStreamService;
+
+    @Autowired
+    private IntradayService intradayService;
+
+    @Autowired
+    private StockSearchService stockSearchService;
+
     @GetMapping("/history/{symbol}")
-    public TimeSeriesDTO getHistoricalData(@PathVariable String symbol) {
-        return hds.getTimeSeriesForSymbol(symbol);
+    public ResponseEntity<StreamingResponseBody> getHistoricalData(@PathVariable String symbol,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "day") String resolution) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(hds.streamTimeSeriesForSymbol(symbol, historyQuery(from, to, limit, resolution)));
+    }
+
+    @PostMapping("/history:batch")
+    public ResponseEntity<StreamingResponseBody> getHistoricalDataBatch(@RequestBody List<String> symbols,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "day") String resolution) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(hds.streamTimeSeriesForSymbols(symbols, historyQuery(from, to, limit, resolution)));
     }
 
+    /**
+     * Metadata rarely changes, so responses carry an ETag and Last-Modified and conditional requests are
+     * answered with 304 Not Modified.
+     */
     @GetMapping("/meta-data/{symbol}")
-    public MetaDataDTO getMetaData(@PathVariable String symbol) {
-        return mds.getTimeSeriesForSymbol(symbol);
+    public ResponseEntity<MetaDataDTO> getMetaData(@PathVariable String symbol) {
+        MetaDataIndex.Snapshot snapshot = mds.snapshot();
+        MetaDataIndex.Entry entry = snapshot.get(symbol);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .eTag(entry.eTag())
+                .lastModified(snapshot.lastModified())
+                .body(entry.metaData());
+    }
+
+    /**
+     * Not conditional: a POST cannot be answered with 304, so clients cache per symbol through
+     * {@code GET /meta-data/{symbol}} instead.
+     */
+    @PostMapping("/meta-data:batch")
+    public ResponseEntity<StreamingResponseBody> getMetaDataBatch(@RequestBody List<String> symbols) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(mds.streamMetaDataForSymbols(mds.snapshot(), symbols));
+    }
+
+    @GetMapping("/search")
+    public List<StockSearchResultDTO> search(@RequestParam(required = false) String q,
+            @RequestParam(required = false) String gicsSector,
+            @RequestParam(required = false) String gicsSubIndustry,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        return stockSearchService.search(q, gicsSector, gicsSubIndustry, limit);
+    }
+
+    @GetMapping("/intraday/{symbol}")
+    public IntradayDTO getIntradayData(@PathVariable String symbol,
+            @RequestParam(defaultValue = "1m") String resolution,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        return intradayService.getIntraday(symbol, resolution, from, to);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamPrices(@RequestParam List<String> symbols,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return priceStreamService.stream(symbols, lastEventId);
+    }
+
+    private static HistoryQuery historyQuery(LocalDate from, LocalDate to, Integer limit, String resolution) {
+        HistoryResolution historyResolution = HistoryResolution.fromCode(resolution);
+        if (historyResolution == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown resolution: " + resolution);
+        }
+        if (limit != null && limit < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must not be negative");
+        }
+        return new HistoryQuery(from, to, limit, historyResolution);
     }
 
     @Override
@@ -0,0 +1,245 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.dao;
+
+import com.smoothstack.live_data.config.HistoryProperties;
+import com.smoothstack.live_data.model.Stock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk-loads generated {@code historical_price} rows with PostgreSQL {@code COPY ... FROM STDIN}.
+ * <p>
+ * Stocks are split into {@code live-data.history.loader-threads} partitions, each streamed by its own
+ * connection while its rows are generated, so nothing is materialized as entities. Progress is
+ * exported as {@code live_data.history.load.rows} and {@code live_data.history.load.progress}. If any
+ * partition fails, the rows the others committed from the first loaded day on are deleted again so the
+ * next start regenerates them.
+ */
+@Component
+@Slf4j
+public class HistoricalPriceCopyLoader {
+    private static final String COPY_SQL =
+            "COPY historical_price (symbol, date, open, close, high, low, volume) FROM STDIN WITH (FORMAT csv)";
+    private static final int FLUSH_BYTES = 1 << 16;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HistoryProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong rowsLoaded = new AtomicLong();
+    private volatile long rowsExpected;
+
+    /**
+     * Produces the rows of one stock.
+     */
+    public interface RowGenerator {
+        void generate(Stock stock, RowWriter rows) throws SQLException;
+    }
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("live_data.history.load.rows", rowsLoaded, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("live_data.history.load.progress", this,
+                        loader -> loader.rowsExpected == 0 ? 0 : (double) loader.rowsLoaded.get() / loader.rowsExpected)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Generates and loads the rows of every stock, none of them before {@code firstDate}, returning the
+     * number of rows loaded.
+     */
+    public long load(List<Stock> stocks, long expectedRows, LocalDate firstDate, RowGenerator generator) {
+        rowsLoaded.set(0);
+        rowsExpected = expectedRows;
+        int partitions = Math.max(1, Math.min(properties.getLoaderThreads(), stocks.size()));
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(partitions, runnable ->
+                new Thread(runnable, "history-loader-" + threadCount.incrementAndGet()));
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int p = 0; p < partitions; p++) {
+                List<Stock> partition = new ArrayList<>();
+                for (int i = p; i < stocks.size(); i += partitions) {
+                    partition.add(stocks.get(i));
+                }
+                results.add(executor.submit(() -> {
+                    copy(partition, generator);
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(firstDate);
+            throw new IllegalStateException("Interrupted while loading historical prices", e);
+        } catch (ExecutionException e) {
+            discard(firstDate);
+            throw new IllegalStateException("Loading historical prices failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return rowsLoaded.get();
+    }
+
+    private void copy(List<Stock> partition, RowGenerator generator) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                RowWriter rows = new RowWriter(copy);
+                for (Stock stock : partition) {
+                    generator.generate(stock, rows);
+                }
+                rows.flush();
+                copy.endCopy();
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every historical price.
+     */
+    public void truncate() {
+        jdbcTemplate.update("TRUNCATE historical_price");
+    }
+
+    /**
+     * Removes the historical prices older than the given day, returning how many there were.
+     */
+    public int deleteBefore(LocalDate date) {
+        return jdbcTemplate.update("DELETE FROM historical_price WHERE date < ?", date);
+    }
+
+    private void discard(LocalDate firstDate) {
+        // Partitions commit independently; leave no partially loaded days behind.
+        try {
+            jdbcTemplate.update("DELETE FROM historical_price WHERE date >= ?", firstDate);
+        } catch (RuntimeException e) {
+            log.error("Could not remove partially loaded historical prices", e);
+        }
+    }
+
+    /**
+     * Formats rows as CSV into a reusable buffer and hands it to the {@code COPY} stream in large
+     * chunks.
+     */
+    public final class RowWriter {
+        private final CopyIn copy;
+        private byte[] buffer = new byte[FLUSH_BYTES + 256];
+        private int size;
+        private int pendingRows;
+
+        private RowWriter(CopyIn copy) {
+            this.copy = copy;
+        }
+
+        public void add(String symbol, LocalDate date, long openCents, long closeCents, long highCents,
+                        long lowCents, long volume) throws SQLException {
+            ascii(symbol);
+            put(',');
+            ascii(date.toString());
+            put(',');
+            cents(openCents);
+            put(',');
+            cents(closeCents);
+            put(',');
+            cents(highCents);
+            put(',');
+            cents(lowCents);
+            put(',');
+            ascii(Long.toString(volume));
+            put('\n');
+            pendingRows++;
+            if (size >= FLUSH_BYTES) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (size > 0) {
+                copy.writeToCopy(buffer, 0, size);
+                size = 0;
+            }
+            rowsLoaded.addAndGet(pendingRows);
+            pendingRows = 0;
+        }
+
+        private void cents(long cents) {
+            if (cents < 0) {
+                put('-');
+                cents = -cents;
+            }
+            ascii(Long.toString(cents / 100));
+            put('.');
+            long fraction = cents % 100;
+            put((char) ('0' + fraction / 10));
+            put((char) ('0' + fraction % 10));
+        }
+
+        private void ascii(String text) {
+            if (size + text.length() > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + text.length()));
+            }
+            for (int i = 0; i < text.length(); i++) {
+                buffer[size++] = (byte) text.charAt(i);
+            }
+        }
+
+        private void put(char c) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[size++] = (byte) c;
+        }
+    }
+}
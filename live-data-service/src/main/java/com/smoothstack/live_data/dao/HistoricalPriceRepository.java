@@ -18,8 +18,13 @@ package com.smoothstack.live_data.dao;
 import com.smoothstack.live_data.model.HistoricalPrice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface HistoricalPriceRepository extends JpaRepository<HistoricalPrice, Long> {
-    List<HistoricalPrice> findBySymbolOrderByDateAsc(String symbol);
-}
\ No newline at end of file
+    List<HistoricalPrice> findBySymbolInAndDate(Collection<String> symbols, LocalDate date);
+
+    List<HistoricalPrice> findBySymbolInAndDateBetweenOrderBySymbolAscDateAsc(Collection<String> symbols, LocalDate from,
+                                                                             LocalDate to);
+}
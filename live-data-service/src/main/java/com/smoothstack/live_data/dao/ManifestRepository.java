@@ -0,0 +1,34 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.dao;
+
+import com.smoothstack.live_data.model.ManifestEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ManifestRepository extends JpaRepository<ManifestEntry, String> {
+
+    default Optional<String> value(String name) {
+        return findById(name).map(ManifestEntry::getValue);
+    }
+
+    default void put(String name, String value) {
+        save(new ManifestEntry(name, value, Instant.now()));
+    }
+}
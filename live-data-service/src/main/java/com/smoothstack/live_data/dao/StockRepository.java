@@ -18,7 +18,12 @@ package com.smoothstack.live_data.dao;
 import com.smoothstack.live_data.model.Stock;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface StockRepository extends JpaRepository<Stock, String> {
 
     Stock findBySymbol(String symbol);
+
+    List<Stock> findBySymbolIn(Collection<String> symbols);
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One OHLC bar of live prices. The simulation has no traded volume, so {@code volume} is the number of
+ * price updates in the bar.
+ */
+public record IntradayBarDTO(Instant time, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close,
+                             long volume) {
+}
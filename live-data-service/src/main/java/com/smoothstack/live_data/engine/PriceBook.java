@@ -0,0 +1,198 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.smoothstack.live_data.engine;
+
+import com.smoothstack.live_data.dao.StockRepository;
+import com.smoothstack.live_data.event.HistoricalDataGeneratedEvent;
+import com.smoothstack.live_data.model.Stock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory book of the latest price for every symbol in the universe.
+ * <p>
+ * Symbols are mapped to a dense index so prices (in cents) and the sequence number of their last
+ * update live in primitive arrays that the tick engine updates in place. The book is rebuilt from the
+ * {@code Stock} table once the universe and its history are loaded, and written back asynchronously as
+ * one batched update of the symbols that changed since the previous flush.
+ */
+@Component
+@Slf4j
+public class PriceBook {
+    private static final String FLUSH_SQL = "UPDATE stock SET price = ? WHERE symbol = ?";
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile Slots slots = Slots.EMPTY;
+    private volatile int version;
+
+    @EventListener(HistoricalDataGeneratedEvent.class)
+    public void onHistoricalDataGenerated() {
+        load();
+    }
+
+    public synchronized void load() {
+        List<Stock> stocks = new ArrayList<>(stockRepository.findAll());
+        stocks.sort((a, b) -> a.getSymbol().compareTo(b.getSymbol()));
+
+        String[] symbols = new String[stocks.size()];
+        long[] prices = new long[stocks.size()];
+        for (int i = 0; i < symbols.length; i++) {
+            Stock stock = stocks.get(i);
+            symbols[i] = stock.getSymbol();
+            prices[i] = toCents(stock.getPrice());
+        }
+        slots = new Slots(symbols, prices);
+        version++;
+        log.info("Price book loaded with {} symbols", symbols.length);
+    }
+
+    /**
+     * Incremented every time the book is reloaded and symbol indexes may have changed.
+     */
+    public int version() {
+        return version;
+    }
+
+    public int size() {
+        return slots.symbols.length;
+    }
+
+    public int indexOf(String symbol) {
+        Integer id = slots.ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    public String symbolAt(int id) {
+        return slots.symbols[id];
+    }
+
+    public long priceCents(int id) {
+        return slots.prices.get(id);
+    }
+
+    public long sequence(int id) {
+        return slots.sequences.get(id);
+    }
+
+    public BigDecimal getPrice(String symbol) {
+        Slots current = slots;
+        Integer id = current.ids.get(symbol);
+        return id == null ? null : BigDecimal.valueOf(current.prices.get(id), 2);
+    }
+
+    /**
+     * Stores a new price for the given symbol. Workers may call this concurrently for disjoint symbols;
+     * the update becomes visible to sequence readers once it is {@link #stamp stamped}.
+     */
+    public void setPrice(int id, long priceCents) {
+        slots.prices.set(id, priceCents);
+    }
+
+    /**
+     * Stamps the latest price of the given symbol with the next sequence number. Called from the single
+     * tick coordinator thread so sequence numbers are handed out in publication order.
+     */
+    public long stamp(int id) {
+        long seq = sequence.incrementAndGet();
+        slots.sequences.set(id, seq);
+        return seq;
+    }
+
+    public long lastSequence() {
+        return sequence.get();
+    }
+
+    @Scheduled(fixedDelayString = "${live-data.price-book.flush-interval-ms:5000}")
+    public void flush() {
+        Slots current = slots;
+        List<Object[]> batch = new ArrayList<>();
+        long[] flushed = new long[current.symbols.length];
+
+        for (int id = 0; id < current.symbols.length; id++) {
+            long seq = current.sequences.get(id);
+            flushed[id] = seq;
+            if (seq != current.flushedSequences[id]) {
+                batch.add(new Object[]{BigDecimal.valueOf(current.prices.get(id), 2), current.symbols[id]});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            for (int id = 0; id < flushed.length; id++) {
+                current.flushedSequences[id] = flushed[id];
+            }
+            log.debug("Flushed {} prices to the stock table", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} prices, retrying on next flush", batch.size(), e);
+        }
+    }
+
+    public static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Formats cents as dollars with two decimals, the way Jackson writes {@code BigDecimal.valueOf(cents, 2)}.
+     */
+    public static String formatCents(long cents) {
+        long dollars = Math.abs(cents / 100);
+        long fraction = Math.abs(cents % 100);
+        return (cents < 0 ? "-" : "") + dollars + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    private static final class Slots {
+        static final Slots EMPTY = new Slots(new String[0], new long[0]);
+
+        final String[] symbols;
+        final Map<String, Integer> ids;
+        final AtomicLongArray prices;
+        final AtomicLongArray sequences;
+        final long[] flushedSequences;
+
+        Slots(String[] symbols, long[] prices) {
+            this.symbols = symbols;
+            this.ids = new HashMap<>(symbols.length * 2);
+            for (int i = 0; i < symbols.length; i++) {
+                ids.put(symbols[i], i);
+            }
+            this.prices = new AtomicLongArray(prices);
+            this.sequences = new AtomicLongArray(symbols.length);
+            this.flushedSequences = new long[symbols.length];
+        }
+    }
+}
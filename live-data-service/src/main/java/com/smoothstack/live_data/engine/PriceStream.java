@@ -0,0 +1,83 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.engine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Publishes every tick as a {@link PriceTick} on a hot, multicast {@link Flux}. Subscribers that fall
+ * behind do not slow the tick engine down; they are expected to apply their own backpressure strategy.
+ */
+@Component
+public class PriceStream implements TickListener {
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private TickJournal journal;
+
+    private final Sinks.Many<PriceTick> sink = Sinks.many().multicast().directBestEffort();
+
+    public Flux<PriceTick> ticks() {
+        return sink.asFlux();
+    }
+
+    /**
+     * Starts with the updates after the given sequence number, replayed from the {@link TickJournal} as
+     * one tick, and then follows the live stream with no tick missed or repeated in between. If the
+     * sequence is null or the journal no longer reaches back to it, the first tick is instead a snapshot
+     * of every symbol's current price.
+     */
+    public Flux<PriceTick> ticksSince(Long sequence) {
+        return Flux.create(emitter -> {
+            // Ticks are emitted under the same monitor, so the catch-up and the live subscription line up.
+            synchronized (this) {
+                TickBatch missed = new TickBatch();
+                long caughtUp;
+                if (sequence != null && journal.readSince(sequence, missed)) {
+                    caughtUp = missed.isEmpty() ? sequence : missed.sequence(missed.size() - 1);
+                } else {
+                    caughtUp = priceBook.lastSequence();
+                    missed.reset(0, priceBook.size());
+                    for (int id = 0; id < priceBook.size(); id++) {
+                        missed.add(id, priceBook.priceCents(id), priceBook.sequence(id));
+                    }
+                }
+                if (!missed.isEmpty()) {
+                    emitter.next(new PriceTick(missed, priceBook));
+                }
+                Disposable live = sink.asFlux()
+                        .filter(tick -> tick.lastSequence() > caughtUp)
+                        .subscribe(emitter::next, emitter::error, emitter::complete);
+                emitter.onDispose(live);
+            }
+        }, FluxSink.OverflowStrategy.BUFFER);
+    }
+
+    @Override
+    public synchronized void onTick(TickBatch batch) {
+        if (batch.isEmpty() || sink.currentSubscriberCount() == 0) {
+            return;
+        }
+        sink.tryEmitNext(new PriceTick(batch, priceBook));
+    }
+}
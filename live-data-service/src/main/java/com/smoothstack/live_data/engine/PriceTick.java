@@ -0,0 +1,110 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.engine;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable copy of one tick's price updates, safe to hand to other threads and reactive pipelines.
+ * The symbol lookup and the rendered JSON members are built lazily and shared by every consumer of the
+ * tick; racing first calls may both build them, with identical results.
+ */
+public final class PriceTick {
+    private final long tick;
+    private final String[] symbols;
+    private final long[] prices;
+    private final long[] sequences;
+    private final long lastSequence;
+    private final String[] members;
+    private Map<String, Integer> positions;
+
+    PriceTick(TickBatch batch, PriceBook priceBook) {
+        int size = batch.size();
+        this.tick = batch.tick();
+        this.symbols = new String[size];
+        this.prices = new long[size];
+        this.sequences = new long[size];
+        this.members = new String[size];
+        long last = 0;
+        for (int i = 0; i < size; i++) {
+            symbols[i] = priceBook.symbolAt(batch.symbolId(i));
+            prices[i] = batch.priceCents(i);
+            sequences[i] = batch.sequence(i);
+            last = Math.max(last, sequences[i]);
+        }
+        this.lastSequence = last;
+    }
+
+    public long tick() {
+        return tick;
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+
+    public String symbol(int i) {
+        return symbols[i];
+    }
+
+    public long priceCents(int i) {
+        return prices[i];
+    }
+
+    public long sequence(int i) {
+        return sequences[i];
+    }
+
+    /**
+     * Highest sequence number among the updates.
+     */
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Position of the symbol's update in this tick, or -1 if it did not change.
+     */
+    public int indexOf(String symbol) {
+        Map<String, Integer> index = positions;
+        if (index == null) {
+            index = new HashMap<>(symbols.length * 2);
+            for (int i = 0; i < symbols.length; i++) {
+                index.put(symbols[i], i);
+            }
+            positions = index;
+        }
+        Integer i = index.get(symbol);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * The i-th update as a {@code "SYMBOL":price} JSON member.
+     */
+    public String jsonMember(int i) {
+        String member = members[i];
+        if (member == null) {
+            member = '"' + new String(JsonStringEncoder.getInstance().quoteAsString(symbols[i])) + "\":"
+                    + PriceBook.formatCents(prices[i]);
+            members[i] = member;
+        }
+        return member;
+    }
+}
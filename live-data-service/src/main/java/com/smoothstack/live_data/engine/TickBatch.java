@@ -0,0 +1,90 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.smoothstack.live_data.engine;
+
+/**
+ * The price updates produced by one tick, as parallel primitive arrays ordered by sequence number.
+ */
+public class TickBatch {
+    private int[] symbolIds = new int[0];
+    private long[] prices = new long[0];
+    private long[] sequences = new long[0];
+    private long[] times = new long[0];
+    private int size;
+    private long tick;
+    private long timeMillis;
+
+    public int size() {
+        return size;
+    }
+
+    public long tick() {
+        return tick;
+    }
+
+    public int symbolId(int i) {
+        return symbolIds[i];
+    }
+
+    public long priceCents(int i) {
+        return prices[i];
+    }
+
+    public long sequence(int i) {
+        return sequences[i];
+    }
+
+    /**
+     * Epoch millisecond of the tick that produced the update.
+     */
+    public long timeMillis(int i) {
+        return times[i];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void reset(long tick, int capacity) {
+        if (symbolIds.length < capacity) {
+            symbolIds = new int[capacity];
+            prices = new long[capacity];
+            sequences = new long[capacity];
+            times = new long[capacity];
+        }
+        this.tick = tick;
+        this.size = 0;
+    }
+
+    /**
+     * Sets the time stamped on the updates added from now on.
+     */
+    public void setTimeMillis(long timeMillis) {
+        this.timeMillis = timeMillis;
+    }
+
+    public void add(int symbolId, long priceCents, long sequence) {
+        add(symbolId, priceCents, sequence, timeMillis);
+    }
+
+    public void add(int symbolId, long priceCents, long sequence, long timeMillis) {
+        symbolIds[size] = symbolId;
+        prices[size] = priceCents;
+        sequences[size] = sequence;
+        times[size] = timeMillis;
+        size++;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.smoothstack.live_data.engine;
+
+import com.smoothstack.live_data.config.TickProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the price simulation. Every {@code live-data.ticks.interval-ms} a coordinator thread lets the
+ * worker shards move the prices they own, stamps the changed prices with sequence numbers, records
+ * them in the {@link TickJournal} and hands them to every {@link TickListener}.
+ * <p>
+ * Symbols are assigned to shards by the hash of their ticker. Each shard walks an exact fractional
+ * price per symbol with a drift and volatility precomputed for the configured interval, and publishes
+ * it to the book rounded to cents, so moves smaller than a cent accumulate instead of being rounded
+ * away. The tick loop itself does not allocate.
+ */
+@Component
+@DependsOn("tickStore")
+@Slf4j
+public class TickEngine {
+    private static final long MIN_PRICE_CENTS = 1;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private TickProperties properties;
+
+    @Autowired
+    private TickJournal journal;
+
+    @Autowired
+    private List<TickListener> listeners;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ScheduledExecutorService coordinator;
+    private ExecutorService workers;
+    private Shard[] shards = new Shard[0];
+    private int shardsVersion = -1;
+    private final TickBatch batch = new TickBatch();
+    private long tick;
+
+    private long nextTickNanos;
+    private volatile double lagMillis;
+    private volatile double updatesPerSecond;
+    private long windowStartNanos;
+    private long windowUpdates;
+
+    private Counter tickCounter;
+    private Counter updateCounter;
+    private Timer tickTimer;
+
+    @PostConstruct
+    public void start() {
+        tickCounter = meterRegistry.counter("live_data.ticks");
+        updateCounter = meterRegistry.counter("live_data.ticks.updates");
+        tickTimer = meterRegistry.timer("live_data.ticks.duration");
+        Gauge.builder("live_data.ticks.lag", this, engine -> engine.lagMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("live_data.ticks.updates_per_second", this, engine -> engine.updatesPerSecond)
+                .register(meterRegistry);
+
+        int workerCount = Math.max(1, properties.getWorkers());
+        workers = Executors.newFixedThreadPool(workerCount, namedThreads("tick-worker-"));
+        coordinator = Executors.newSingleThreadScheduledExecutor(namedThreads("tick-engine-"));
+
+        long interval = TimeUnit.MILLISECONDS.toNanos(properties.getIntervalMs());
+        nextTickNanos = System.nanoTime();
+        windowStartNanos = nextTickNanos;
+        coordinator.scheduleAtFixedRate(() -> {
+            try {
+                runTick(interval);
+            } catch (RuntimeException e) {
+                log.error("Tick {} failed", tick, e);
+            }
+        }, 0, interval, TimeUnit.NANOSECONDS);
+        log.info("Tick engine started: interval {} ms, {} workers", properties.getIntervalMs(), workerCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public double getLagMillis() {
+        return lagMillis;
+    }
+
+    public double getUpdatesPerSecond() {
+        return updatesPerSecond;
+    }
+
+    private void runTick(long intervalNanos) {
+        long start = System.nanoTime();
+        lagMillis = Math.max(0, start - nextTickNanos) / 1_000_000.0;
+        nextTickNanos += intervalNanos;
+
+        // Holding the book's monitor keeps a reload from swapping the symbol index mid-tick.
+        synchronized (priceBook) {
+            if (priceBook.size() == 0) {
+                return;
+            }
+            if (shardsVersion != priceBook.version()) {
+                buildShards(intervalNanos);
+            }
+
+            CountDownLatch done = new CountDownLatch(shards.length);
+            for (Shard shard : shards) {
+                workers.execute(() -> {
+                    try {
+                        shard.step();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            batch.reset(++tick, priceBook.size());
+            batch.setTimeMillis(System.currentTimeMillis());
+            for (Shard shard : shards) {
+                for (int i = 0; i < shard.changedCount; i++) {
+                    int id = shard.changed[i];
+                    batch.add(id, priceBook.priceCents(id), priceBook.stamp(id));
+                }
+            }
+            journal.append(batch, priceBook.version());
+        }
+
+        for (TickListener listener : listeners) {
+            try {
+                listener.onTick(batch);
+            } catch (RuntimeException e) {
+                log.error("Tick listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+
+        long end = System.nanoTime();
+        tickTimer.record(end - start, TimeUnit.NANOSECONDS);
+        tickCounter.increment();
+        updateCounter.increment(batch.size());
+        recordRate(end, batch.size());
+    }
+
+    private void recordRate(long now, int updates) {
+        windowUpdates += updates;
+        long elapsed = now - windowStartNanos;
+        if (elapsed >= TimeUnit.SECONDS.toNanos(1)) {
+            updatesPerSecond = windowUpdates * 1_000_000_000.0 / elapsed;
+            windowUpdates = 0;
+            windowStartNanos = now;
+        }
+    }
+
+    private void buildShards(long intervalNanos) {
+        int shardCount = Math.max(1, properties.getWorkers());
+        int size = priceBook.size();
+        int[] counts = new int[shardCount];
+        int[] owner = new int[size];
+        for (int id = 0; id < size; id++) {
+            owner[id] = Math.floorMod(priceBook.symbolAt(id).hashCode(), shardCount);
+            counts[owner[id]]++;
+        }
+
+        double intervalSeconds = intervalNanos / 1_000_000_000.0;
+        double timeFrame = properties.getTimeFrameSeconds();
+        Shard[] built = new Shard[shardCount];
+        for (int s = 0; s < shardCount; s++) {
+            built[s] = new Shard(counts[s]);
+        }
+        for (int id = 0; id < size; id++) {
+            String symbol = priceBook.symbolAt(id);
+            double drift = properties.driftFor(symbol) / timeFrame * intervalSeconds;
+            double volatility = properties.volatilityFor(symbol) * Math.sqrt(intervalSeconds / timeFrame);
+            built[owner[id]].add(id, drift, volatility);
+        }
+
+        shards = built;
+        shardsVersion = priceBook.version();
+        log.info("Sharded {} symbols across {} tick workers", size, shardCount);
+    }
+
+    private final class Shard {
+        final int[] ids;
+        final double[] drift;
+        final double[] volatility;
+        // Unrounded price in cents; the book holds it rounded.
+        final double[] exactCents;
+        final int[] changed;
+        int size;
+        int changedCount;
+
+        Shard(int capacity) {
+            ids = new int[capacity];
+            drift = new double[capacity];
+            volatility = new double[capacity];
+            exactCents = new double[capacity];
+            changed = new int[capacity];
+        }
+
+        void add(int id, double driftPerTick, double volatilityPerTick) {
+            ids[size] = id;
+            drift[size] = driftPerTick;
+            volatility[size] = volatilityPerTick;
+            exactCents[size] = priceBook.priceCents(id);
+            size++;
+        }
+
+        void step() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            changedCount = 0;
+            for (int i = 0; i < size; i++) {
+                int id = ids[i];
+                long current = priceBook.priceCents(id);
+                double exact = Math.round(exactCents[i]) == current ? exactCents[i] : current;
+                double change = drift[i] + random.nextGaussian() * volatility[i];
+                exact = Math.max(MIN_PRICE_CENTS, exact * (1 + change));
+                exactCents[i] = exact;
+                long next = Math.round(exact);
+                if (next != current) {
+                    priceBook.setPrice(id, next);
+                    changed[changedCount++] = id;
+                }
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
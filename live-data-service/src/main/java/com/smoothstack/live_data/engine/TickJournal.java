@@ -0,0 +1,140 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.engine;
+
+import com.smoothstack.live_data.config.StreamProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Fixed-size ring of the most recent price updates, so clients can catch up from a sequence number
+ * instead of starting over from a snapshot.
+ * <p>
+ * The tick coordinator is the only writer: it claims the slots of a batch by advancing {@link #claimed},
+ * fills them, and then publishes them by advancing the volatile {@link #cursor}. Readers never block it.
+ * Like a {@link java.util.concurrent.locks.StampedLock} optimistic read, they copy the slots below the
+ * cursor they observed and afterwards, behind an acquire fence, check that the writer has not claimed
+ * any of the slots they copied; the slot arrays themselves are preallocated and never replaced.
+ */
+@Component
+public class TickJournal {
+    @Autowired
+    private StreamProperties properties;
+
+    private long[] sequences;
+    private int[] symbolIds;
+    private long[] prices;
+    private long[] times;
+    private int mask;
+
+    /**
+     * Number of updates ever appended; slot {@code n & mask} holds update {@code n}.
+     */
+    private volatile long cursor;
+
+    /**
+     * Number of updates the writer has started to write; at least {@link #cursor}.
+     */
+    private volatile long claimed;
+
+    /**
+     * Updates at or below this sequence were appended under an older book version and their symbol
+     * ids are no longer valid.
+     */
+    private volatile long floorSequence;
+    private int bookVersion = -1;
+
+    @PostConstruct
+    public void init() {
+        int capacity = Integer.highestOneBit(Math.max(2, properties.getJournalCapacity()) - 1) << 1;
+        sequences = new long[capacity];
+        symbolIds = new int[capacity];
+        prices = new long[capacity];
+        times = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Appends a batch. Must only be called by the tick coordinator.
+     */
+    void append(TickBatch batch, int version) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (version != bookVersion) {
+            floorSequence = batch.sequence(0) - 1;
+            bookVersion = version;
+        }
+        long next = cursor;
+        claimed = next + batch.size();
+        // Readers that see any of the slot writes below must also see the claim.
+        VarHandle.storeStoreFence();
+        for (int i = 0; i < batch.size(); i++) {
+            int slot = (int) (next++ & mask);
+            sequences[slot] = batch.sequence(i);
+            symbolIds[slot] = batch.symbolId(i);
+            prices[slot] = batch.priceCents(i);
+            times[slot] = batch.timeMillis(i);
+        }
+        cursor = next;
+    }
+
+    /**
+     * Copies every retained update with a sequence number above {@code sequence} into {@code into}, in
+     * sequence order. Returns false, leaving {@code into} unspecified, if updates after that sequence
+     * have already been overwritten or predate the current book version.
+     */
+    public boolean readSince(long sequence, TickBatch into) {
+        if (sequence < floorSequence) {
+            return false;
+        }
+        long end = cursor;
+        long oldest = Math.max(0, end - capacity());
+        long start = end;
+        while (start > oldest && sequences[(int) ((start - 1) & mask)] > sequence) {
+            start--;
+        }
+        if (start == oldest && oldest > 0 && sequences[(int) (oldest & mask)] > sequence + 1) {
+            return false;
+        }
+
+        into.reset(0, (int) (end - start));
+        for (long n = start; n < end; n++) {
+            int slot = (int) (n & mask);
+            into.add(symbolIds[slot], prices[slot], sequences[slot], times[slot]);
+        }
+        // The writer may have lapped us while copying; anything it claimed since may be torn. The fence
+        // keeps the slot reads above from being reordered after the re-read of the claim.
+        VarHandle.acquireFence();
+        return claimed - capacity() <= start && sequence >= floorSequence;
+    }
+
+    /**
+     * Sequence number of the last appended update, or 0 if none.
+     */
+    public long lastSequence() {
+        long end = cursor;
+        return end == 0 ? 0 : sequences[(int) ((end - 1) & mask)];
+    }
+}
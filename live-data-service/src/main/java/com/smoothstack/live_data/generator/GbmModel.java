@@ -0,0 +1,50 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.generator;
+
+import com.smoothstack.live_data.config.HistoryProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Geometric Brownian motion: normally distributed log returns with constant drift and volatility.
+ */
+@Component
+public class GbmModel implements PriceModel {
+    static final double DAYS_PER_YEAR = 365;
+
+    @Autowired
+    private HistoryProperties properties;
+
+    @Override
+    public String name() {
+        return "gbm";
+    }
+
+    @Override
+    public Run start(LocalDate firstDay, int days) {
+        double sigma = properties.getVolatility() / Math.sqrt(DAYS_PER_YEAR);
+        double mu = properties.getDrift() / DAYS_PER_YEAR - sigma * sigma / 2;
+        return (stock, random, returns) -> {
+            for (int t = 0; t < returns.length; t++) {
+                returns[t] = mu + sigma * random.nextGaussian();
+            }
+        };
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.generator;
+
+import com.smoothstack.live_data.config.HistoryProperties;
+import com.smoothstack.live_data.engine.PriceBook;
+import com.smoothstack.live_data.model.Stock;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Turns the daily log returns of the configured {@link PriceModel} into chronologically consistent
+ * OHLCV paths. Each path is anchored so that its last close is the stock's current price, each open is
+ * the previous close with a small overnight gap, and the intraday range and volume widen with the size
+ * of the day's move.
+ * <p>
+ * Every stock gets its own {@link SplittableRandom}, split from one seeded root in ticker order, so
+ * stocks can be generated on any number of threads and still produce the same history.
+ */
+@Component
+@Slf4j
+public class HistoryGenerator {
+    private static final long BASE_VOLUME = 5000;
+
+    @Autowired
+    private HistoryProperties properties;
+
+    @Autowired
+    private List<PriceModel> models;
+
+    private PriceModel model;
+
+    @PostConstruct
+    public void init() {
+        model = models.stream()
+                .filter(candidate -> candidate.name().equalsIgnoreCase(properties.getModel()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown history model: " + properties.getModel()));
+        log.info("Generating history with the {} model, seed {}", model.name(), properties.getSeed());
+    }
+
+    /**
+     * One random number generator per stock, keyed by symbol. The stocks must be in a stable order.
+     */
+    public Map<String, SplittableRandom> randoms(List<Stock> stocks) {
+        return randoms(stocks, 0);
+    }
+
+    /**
+     * Like {@link #randoms(List)}, with the seed mixed with a salt so that, for example, each extension
+     * of the history draws fresh numbers.
+     */
+    public Map<String, SplittableRandom> randoms(List<Stock> stocks, long salt) {
+        SplittableRandom root = new SplittableRandom(properties.getSeed() ^ salt * 0x9E3779B97F4A7C15L);
+        Map<String, SplittableRandom> randoms = new HashMap<>();
+        for (Stock stock : stocks) {
+            randoms.put(stock.getSymbol(), root.split());
+        }
+        return randoms;
+    }
+
+    /**
+     * Starts one generation of {@code days} days per stock, starting on {@code firstDay}, for
+     * {@link #generate} and {@link #bridge}.
+     */
+    public PriceModel.Run start(LocalDate firstDay, int days) {
+        return model.start(firstDay, days);
+    }
+
+    /**
+     * A path of the run's days that ends at the stock's current price.
+     */
+    public PricePath generate(Stock stock, SplittableRandom random, PriceModel.Run run, int days) {
+        double[] returns = new double[days];
+        run.dailyReturns(stock, random, returns);
+        // Walking forward from exp(-total) times today's price ends exactly at today's price.
+        double anchor = PriceBook.toCents(stock.getPrice()) / 100.0;
+        return walk(anchor * Math.exp(-sum(returns)), returns, random);
+    }
+
+    /**
+     * A path of the run's days that starts from a previous close and ends at the stock's current price,
+     * for appending to an existing history without a jump at either end.
+     */
+    public PricePath bridge(Stock stock, SplittableRandom random, long previousCloseCents, PriceModel.Run run,
+                            int days) {
+        double[] returns = new double[days];
+        run.dailyReturns(stock, random, returns);
+        double anchor = PriceBook.toCents(stock.getPrice()) / 100.0;
+        double start = previousCloseCents / 100.0;
+        double shift = (Math.log(anchor / start) - sum(returns)) / days;
+        for (int t = 0; t < days; t++) {
+            returns[t] += shift;
+        }
+        return walk(start, returns, random);
+    }
+
+    private PricePath walk(double close, double[] returns, SplittableRandom random) {
+        double sigma = properties.getVolatility() / Math.sqrt(GbmModel.DAYS_PER_YEAR);
+        PricePath path = new PricePath(returns.length);
+        for (int t = 0; t < returns.length; t++) {
+            double open = close * Math.exp(0.2 * sigma * random.nextGaussian());
+            close = close * Math.exp(returns[t]);
+            double high = Math.max(open, close) * Math.exp(0.5 * sigma * Math.abs(random.nextGaussian()));
+            double low = Math.min(open, close) * Math.exp(-0.5 * sigma * Math.abs(random.nextGaussian()));
+
+            path.open[t] = cents(open);
+            path.close[t] = cents(close);
+            path.high[t] = Math.max(cents(high), Math.max(path.open[t], path.close[t]));
+            path.low[t] = Math.min(cents(low), Math.min(path.open[t], path.close[t]));
+            path.volume[t] = Math.round(BASE_VOLUME * Math.exp(0.4 * random.nextGaussian())
+                    * (1 + Math.abs(returns[t]) / sigma));
+        }
+        return path;
+    }
+
+    private static double sum(double[] returns) {
+        double total = 0;
+        for (double r : returns) {
+            total += r;
+        }
+        return total;
+    }
+
+    private static long cents(double price) {
+        return Math.max(1, Math.round(price * 100));
+    }
+}
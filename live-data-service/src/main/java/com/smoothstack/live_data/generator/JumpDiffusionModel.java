@@ -0,0 +1,62 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.generator;
+
+import com.smoothstack.live_data.config.HistoryProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Merton jump diffusion: geometric Brownian motion plus a Poisson number of normally distributed jumps
+ * per day, modelling earnings surprises and other gaps.
+ */
+@Component
+public class JumpDiffusionModel implements PriceModel {
+    @Autowired
+    private HistoryProperties properties;
+
+    @Override
+    public String name() {
+        return "jump-diffusion";
+    }
+
+    @Override
+    public Run start(LocalDate firstDay, int days) {
+        double sigma = properties.getVolatility() / Math.sqrt(GbmModel.DAYS_PER_YEAR);
+        double lambda = properties.getJumpIntensity() / GbmModel.DAYS_PER_YEAR;
+        double jumpMean = properties.getJumpMean();
+        double jumpSigma = properties.getJumpVolatility();
+        // Compensate the drift for the expected jump so the annual drift keeps its meaning.
+        double compensation = lambda * (Math.exp(jumpMean + jumpSigma * jumpSigma / 2) - 1);
+        double mu = properties.getDrift() / GbmModel.DAYS_PER_YEAR - sigma * sigma / 2 - compensation;
+        double noJump = Math.exp(-lambda);
+        return (stock, random, returns) -> {
+            for (int t = 0; t < returns.length; t++) {
+                double r = mu + sigma * random.nextGaussian();
+                // Knuth's method; lambda is far below one so this loops once or twice.
+                double p = random.nextDouble();
+                while (p > noJump) {
+                    r += jumpMean + jumpSigma * random.nextGaussian();
+                    p *= random.nextDouble();
+                }
+                returns[t] = r;
+            }
+        };
+    }
+}
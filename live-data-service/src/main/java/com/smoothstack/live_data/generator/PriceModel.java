@@ -0,0 +1,50 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.generator;
+
+import com.smoothstack.live_data.model.Stock;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * A stochastic model of daily log returns. Implementations are Spring beans selected by
+ * {@code live-data.history.model}. Their runs must be thread-safe, since stocks are generated in
+ * parallel, and draw all randomness from the generator they are given or from the run's seed, so paths
+ * are reproducible.
+ */
+public interface PriceModel {
+    /**
+     * The value of {@code live-data.history.model} that selects this model.
+     */
+    String name();
+
+    /**
+     * Starts generating {@code days} daily returns per stock, starting with the return of
+     * {@code firstDay}. Whatever the stocks of one generation share lives in the returned run and is
+     * dropped with it.
+     */
+    Run start(LocalDate firstDay, int days);
+
+    @FunctionalInterface
+    interface Run {
+        /**
+         * Fills {@code returns} with the run's consecutive daily log returns for the stock, oldest first.
+         */
+        void dailyReturns(Stock stock, SplittableRandom random, double[] returns);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.generator;
+
+/**
+ * Daily OHLC prices in cents and volumes of one stock, oldest day first.
+ */
+public final class PricePath {
+    final long[] open;
+    final long[] high;
+    final long[] low;
+    final long[] close;
+    final long[] volume;
+
+    PricePath(int days) {
+        open = new long[days];
+        high = new long[days];
+        low = new long[days];
+        close = new long[days];
+        volume = new long[days];
+    }
+
+    public int days() {
+        return close.length;
+    }
+
+    public long openCents(int day) {
+        return open[day];
+    }
+
+    public long highCents(int day) {
+        return high[day];
+    }
+
+    public long lowCents(int day) {
+        return low[day];
+    }
+
+    public long closeCents(int day) {
+        return close[day];
+    }
+
+    public long volume(int day) {
+        return volume[day];
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.generator;
+
+import com.smoothstack.live_data.config.HistoryProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One-factor model per GICS sector: each stock's shock mixes a factor shared by its sector with an
+ * idiosyncratic one, so stocks in the same sector move together with correlation
+ * {@code live-data.history.sector-correlation}.
+ */
+@Component
+public class SectorFactorModel implements PriceModel {
+    @Autowired
+    private HistoryProperties properties;
+
+    @Override
+    public String name() {
+        return "sector-factor";
+    }
+
+    /**
+     * Draws each sector's standard normal factor shocks once for the run, seeded from the first day so
+     * each extension of the history gets fresh ones. They are held only as long as the run.
+     */
+    @Override
+    public Run start(LocalDate firstDay, int days) {
+        double sigma = properties.getVolatility() / Math.sqrt(GbmModel.DAYS_PER_YEAR);
+        double mu = properties.getDrift() / GbmModel.DAYS_PER_YEAR - sigma * sigma / 2;
+        double rho = Math.max(0, Math.min(1, properties.getSectorCorrelation()));
+        double beta = Math.sqrt(rho);
+        double idiosyncratic = Math.sqrt(1 - rho);
+        long seed = properties.getSeed() * 31 + firstDay.toEpochDay();
+        Map<String, double[]> factors = new ConcurrentHashMap<>();
+        return (stock, random, returns) -> {
+            double[] factor = factors.computeIfAbsent(String.valueOf(stock.getGicsSector()),
+                    sector -> shocks(seed * 31 + sector.hashCode(), days));
+            for (int t = 0; t < returns.length; t++) {
+                returns[t] = mu + sigma * (beta * factor[t] + idiosyncratic * random.nextGaussian());
+            }
+        };
+    }
+
+    private static double[] shocks(long seed, int days) {
+        // Seeded from the sector name so every stock of the sector sees the same shocks.
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] shocks = new double[days];
+        for (int t = 0; t < days; t++) {
+            shocks[t] = random.nextGaussian();
+        }
+        return shocks;
+    }
+}
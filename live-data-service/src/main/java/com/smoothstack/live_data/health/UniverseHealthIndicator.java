@@ -0,0 +1,60 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.health;
+
+import com.smoothstack.live_data.event.HistoricalDataGeneratedEvent;
+import com.smoothstack.live_data.service.CsvService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness gate of the service: out of service until the stock universe is ingested and its history
+ * is in place, down if ingestion failed.
+ */
+@Component
+public class UniverseHealthIndicator implements HealthIndicator {
+    @Autowired
+    private CsvService csvService;
+
+    private volatile boolean historyReady;
+
+    @EventListener(HistoricalDataGeneratedEvent.class)
+    public void onHistoricalDataGenerated() {
+        historyReady = true;
+    }
+
+    @Override
+    public Health health() {
+        if (csvService.getFailure() != null) {
+            return Health.down(csvService.getFailure()).build();
+        }
+        if (!csvService.isCompleted() || !historyReady) {
+            return Health.outOfService()
+                    .withDetail("universeIngested", csvService.isCompleted())
+                    .withDetail("historyReady", historyReady)
+                    .build();
+        }
+        return Health.up()
+                .withDetail("unchanged", csvService.isUnchanged())
+                .withDetail("stocks", csvService.getRows())
+                .withDetail("ingestMillis", csvService.getDurationMillis())
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One fact about the data loaded by a previous start, such as the checksum of the ingested universe or
+ * the last day of generated history, so the next start can skip what is still current.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "startup_manifest")
+public class ManifestEntry {
+    public static final String UNIVERSE_SHA256 = "universe.sha256";
+    public static final String HISTORY_FINGERPRINT = "history.fingerprint";
+    public static final String HISTORY_WATERMARK = "history.watermark";
+
+    @Id
+    private String name;
+    @Column(length = 1024)
+    private String value;
+    private Instant updatedAt;
+}
@@ -13,65 +13,249 @@
  * along with this program. If not, see <https://www.gnu.org/licenses/>.
  */
 
+
 package com.smoothstack.live_data.service;
 
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
-import com.smoothstack.live_data.dao.StockRepository;
+import com.smoothstack.live_data.config.UniverseProperties;
+import com.smoothstack.live_data.dao.ManifestRepository;
 import com.smoothstack.live_data.event.CsvProcessingCompletedEvent;
-import com.smoothstack.live_data.model.Stock;
-import jakarta.annotation.PostConstruct;
+import com.smoothstack.live_data.model.ManifestEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Loads the stock universe from {@code live-data.universe.location} once the application is up.
+ * <p>
+ * The CSV is parsed as a stream and cut into batches that a small pool upserts with
+ * {@code INSERT ... ON CONFLICT}, so memory stays flat however large the universe is. Columns are found
+ * by their header names. A file whose SHA-256 matches the one recorded in the startup manifest by the
+ * previous start is not ingested again. Ingestion runs off the startup thread; {@link #isCompleted()}
+ * and the {@code universe} health indicator report when the universe is ready.
+ */
 @Service
+@Slf4j
 public class CsvService implements ApplicationEventPublisherAware {
+    private static final String UPSERT_SQL = "INSERT INTO stock (symbol, security, sec_filings, gics_sector, "
+            + "gics_sub_industry, headquarters_location, date_first_added, cik, founded, price) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (symbol) DO UPDATE SET "
+            + "security = EXCLUDED.security, sec_filings = EXCLUDED.sec_filings, gics_sector = EXCLUDED.gics_sector, "
+            + "gics_sub_industry = EXCLUDED.gics_sub_industry, "
+            + "headquarters_location = EXCLUDED.headquarters_location, "
+            + "date_first_added = EXCLUDED.date_first_added, cik = EXCLUDED.cik, founded = EXCLUDED.founded, "
+            + "price = EXCLUDED.price";
+    private static final String[] COLUMNS = {"symbol", "security", "sec filings", "gics sector",
+            "gics sub-industry", "headquarters location", "date first added", "cik", "founded", "price"};
+    private static final int PRICE = 9;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ResourceLoader resourceLoader;
     @Autowired
-    private StockRepository stockRepository;
+    private UniverseProperties properties;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ManifestRepository manifestRepository;
     private ApplicationEventPublisher eventPublisher;
 
+    private volatile boolean completed;
+    private volatile Exception failure;
+    private volatile long rows;
+    private volatile long durationMillis;
+    private volatile boolean unchanged;
+
     @Override
     public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
         this.eventPublisher = eventPublisher;
     }
 
-    @PostConstruct
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
     public void init() {
-        System.out.println("Initializing CSV service...");
-        readCSV("src/main/resources/stocks_with_prices.csv");
-        System.out.println("CSV processing completed. Publishing event...");
+        long start = System.nanoTime();
+        try {
+            Resource resource = resourceLoader.getResource(properties.getLocation());
+            String checksum = sha256(resource);
+            unchanged = checksum.equals(manifestRepository.value(ManifestEntry.UNIVERSE_SHA256).orElse(null));
+            if (unchanged) {
+                log.info("Stock universe {} is unchanged since the last start, skipping ingestion",
+                        properties.getLocation());
+            } else {
+                rows = ingest(resource);
+                manifestRepository.put(ManifestEntry.UNIVERSE_SHA256, checksum);
+            }
+        } catch (IOException | CsvValidationException | RuntimeException e) {
+            failure = e;
+            log.error("Ingesting the stock universe from {} failed", properties.getLocation(), e);
+            return;
+        }
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        meterRegistry.timer("live_data.universe.ingest").record(durationMillis, TimeUnit.MILLISECONDS);
+        completed = true;
+        if (!unchanged) {
+            log.info("Ingested {} stocks from {} in {} ms", rows, properties.getLocation(), durationMillis);
+        }
         eventPublisher.publishEvent(new CsvProcessingCompletedEvent(this));
     }
 
-    private void readCSV(String csvFile) {
+    public boolean isCompleted() {
+        return completed;
+    }
 
-        try (CSVReader reader = new CSVReader(new FileReader(csvFile))) {
-            String[] line;
-            reader.readNext();
+    /**
+     * Whether ingestion was skipped because the file matched the checksum recorded by the last start.
+     */
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
 
+    private long ingest(Resource resource) throws IOException, CsvValidationException {
+        int writers = Math.max(1, properties.getWriterThreads());
+        int batchSize = Math.max(1, properties.getBatchSize());
+        AtomicInteger threadCount = new AtomicInteger();
+        // A bounded queue that makes the parser upsert itself when writers fall behind keeps memory flat.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(writers, writers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writers * 2), runnable ->
+                new Thread(runnable, "universe-writer-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<?>> batches = new ArrayList<>();
+        long count = 0;
+        try (Reader input = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8);
+             CSVReader reader = new CSVReader(input)) {
+            int[] columns = columnIndexes(reader.readNext());
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            String[] line;
             while ((line = reader.readNext()) != null) {
-                Stock stock = new Stock(
-                        line[0],
-                        line[1],
-                        line[2],
-                        line[3],
-                        line[4],
-                        line[5],
-                        line[6],
-                        line[7],
-                        line[8],
-                        BigDecimal.valueOf(Double.parseDouble(line[9]))
-                );
-                stockRepository.save(stock);
+                Object[] row = toRow(line, columns);
+                if (row == null) {
+                    continue;
+                }
+                batch.add(row);
+                count++;
+                if (batch.size() == batchSize) {
+                    List<Object[]> full = batch;
+                    batches.add(executor.submit(() -> jdbcTemplate.batchUpdate(UPSERT_SQL, full)));
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                List<Object[]> last = batch;
+                batches.add(executor.submit(() -> jdbcTemplate.batchUpdate(UPSERT_SQL, last)));
+            }
+            for (Future<?> result : batches) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while ingesting the stock universe", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Upserting stocks failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return count;
+    }
+
+    private static String sha256(Resource resource) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = resource.getInputStream()) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
             }
-        } catch (IOException | CsvValidationException e) {
-            e.printStackTrace();
         }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static int[] columnIndexes(String[] header) {
+        if (header == null) {
+            throw new IllegalStateException("The stock universe file is empty");
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            positions.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        int[] columns = new int[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            columns[c] = positions.getOrDefault(COLUMNS[c], -1);
+        }
+        if (columns[0] < 0 || columns[PRICE] < 0) {
+            throw new IllegalStateException("The stock universe file needs Symbol and Price columns");
+        }
+        return columns;
+    }
+
+    /**
+     * The upsert parameters of a CSV line, or null if it has no symbol or price.
+     */
+    private static Object[] toRow(String[] line, int[] columns) {
+        Object[] row = new Object[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            int index = columns[c];
+            String value = index >= 0 && index < line.length ? line[index].trim() : null;
+            row[c] = value == null || value.isEmpty() ? null : value;
+        }
+        if (row[0] == null || row[PRICE] == null) {
+            return null;
+        }
+        try {
+            row[PRICE] = new BigDecimal((String) row[PRICE]);
+        } catch (NumberFormatException e) {
+            log.warn("Skipping {}: invalid price {}", row[0], row[PRICE]);
+            return null;
+        }
+        return row;
     }
-}
\ No newline at end of file
+}
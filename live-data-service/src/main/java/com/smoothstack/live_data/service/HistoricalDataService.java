@@ -15,25 +15,45 @@
 
 package com.smoothstack.live_data.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smoothstack.live_data.config.HistoryProperties;
+import com.smoothstack.live_data.dao.HistoricalPriceCopyLoader;
 import com.smoothstack.live_data.dao.HistoricalPriceRepository;
+import com.smoothstack.live_data.dao.ManifestRepository;
 import com.smoothstack.live_data.dao.StockRepository;
-import com.smoothstack.live_data.dto.TimeSeriesDTO;
-import com.smoothstack.live_data.dto.TimeSeriesData;
+import com.smoothstack.live_data.engine.PriceBook;
 import com.smoothstack.live_data.event.CsvProcessingCompletedEvent;
+import com.smoothstack.live_data.event.HistoricalDataGeneratedEvent;
+import com.smoothstack.live_data.generator.HistoryGenerator;
+import com.smoothstack.live_data.generator.PriceModel;
+import com.smoothstack.live_data.generator.PricePath;
 import com.smoothstack.live_data.model.HistoricalPrice;
+import com.smoothstack.live_data.model.ManifestEntry;
 import com.smoothstack.live_data.model.Stock;
+import com.smoothstack.live_data.store.HistoricalPriceCache;
+import com.smoothstack.live_data.store.HistoryQuery;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -42,9 +62,21 @@ public class HistoricalDataService implements ApplicationListener<CsvProcessingC
     private HistoricalPriceRepository historicalPriceRepository;
     @Autowired
     private StockRepository stockRepository;
+    @Autowired
+    private HistoricalPriceCache historicalPriceCache;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private HistoricalPriceCopyLoader copyLoader;
+    @Autowired
+    private HistoryProperties historyProperties;
+    @Autowired
+    private HistoryGenerator historyGenerator;
+    @Autowired
+    private ManifestRepository manifestRepository;
 
-    private static final int BATCH_SIZE = 1000;
-    private static final int DAYS = 365;
 
 
     @Override
@@ -58,70 +90,174 @@ public class HistoricalDataService implements ApplicationListener<CsvProcessingC
         log.info("HistoricalDataService bean created");
     }
 
+    /**
+     * Brings the history up to date using the startup manifest instead of inspecting the table: nothing
+     * is generated when the recorded watermark is today, only the missing trailing days are appended when
+     * it is an earlier day, and everything is regenerated when the universe or the generator settings
+     * changed.
+     */
     private void initializeHistoricalData() {
-        if (historicalPriceRepository.count() == 0) {
+        String fingerprint = fingerprint();
+        LocalDate today = LocalDate.now();
+        boolean sameInputs = fingerprint.equals(
+                manifestRepository.value(ManifestEntry.HISTORY_FINGERPRINT).orElse(null));
+        LocalDate watermark = sameInputs
+                ? manifestRepository.value(ManifestEntry.HISTORY_WATERMARK).map(LocalDate::parse).orElse(null)
+                : null;
+        if (watermark == null || !watermark.isAfter(today.minusDays(historyDays()))) {
             log.info("Generating historical data...");
             generateHistoricalData();
+        } else if (watermark.isBefore(today)) {
+            log.info("Historical data ends on {}. Generating the days since...", watermark);
+            extendHistoricalData(watermark, today);
         } else {
-            log.info("Historical data already exists. Skipping generation.");
+            log.info("Historical data is current. Skipping generation.");
         }
+        eventPublisher.publishEvent(new HistoricalDataGeneratedEvent(this));
     }
 
 
     public void generateHistoricalData() {
         long startTime = System.nanoTime();
-        List<Stock> stocks = stockRepository.findAll();
-
-        stocks.parallelStream().forEach(stock -> {
-            BigDecimal lastClosePrice = null;
-            List<HistoricalPrice> stockPrices = new ArrayList<>(DAYS);
-            LocalDate date = LocalDate.now();
-            double basePrice = stock.getPrice().doubleValue();
-
-            for (int i = 0; i < DAYS; i++) {
-                double variation = basePrice * ThreadLocalRandom.current().nextDouble() * 0.1;
-                double open = basePrice - variation;
-                double close = basePrice + variation;
-                double high = Math.max(open, close) + variation;
-                double low = Math.min(open, close) - variation;
-
-                HistoricalPrice price = new HistoricalPrice();
-                price.setSymbol(stock.getSymbol());
-                price.setDate(date.minusDays(i));
-                price.setOpen(BigDecimal.valueOf(open).setScale(2, RoundingMode.HALF_UP));
-                price.setClose(BigDecimal.valueOf(close).setScale(2, RoundingMode.HALF_UP));
-                price.setHigh(BigDecimal.valueOf(high).setScale(2, RoundingMode.HALF_UP));
-                price.setLow(BigDecimal.valueOf(low).setScale(2, RoundingMode.HALF_UP));
-                price.setVolume(ThreadLocalRandom.current().nextLong(1000, 10000));
-                stockPrices.add(price);
-                lastClosePrice = price.getClose();
-                if (stockPrices.size() == BATCH_SIZE) {
-                    historicalPriceRepository.saveAll(stockPrices);
-                    stockPrices.clear();
-                }
-            }
-            if (!stockPrices.isEmpty()) {
-                historicalPriceRepository.saveAll(stockPrices);
-                stockPrices.clear();
+        List<Stock> stocks = historyStocks();
+        int days = historyDays();
+        LocalDate today = LocalDate.now();
+        LocalDate first = today.minusDays(days - 1L);
+        Map<String, SplittableRandom> randoms = historyGenerator.randoms(stocks);
+        PriceModel.Run run = historyGenerator.start(first, days);
+        Map<String, Long> lastCloses = new ConcurrentHashMap<>();
+
+        // Without a watermark an interrupted run is regenerated in full by the next start.
+        manifestRepository.deleteById(ManifestEntry.HISTORY_WATERMARK);
+        copyLoader.truncate();
+        long rows = copyLoader.load(stocks, (long) stocks.size() * days, first, (stock, writer) -> {
+            PricePath path = historyGenerator.generate(stock, randoms.get(stock.getSymbol()), run, days);
+            for (int day = 0; day < days; day++) {
+                writer.add(stock.getSymbol(), first.plusDays(day), path.openCents(day), path.closeCents(day),
+                        path.highCents(day), path.lowCents(day), path.volume(day));
             }
+            lastCloses.put(stock.getSymbol(), path.closeCents(days - 1));
+        });
+
+        for (Stock stock : stocks) {
+            stock.setPrice(BigDecimal.valueOf(lastCloses.get(stock.getSymbol()), 2));
+        }
+        stockRepository.saveAll(stocks);
+        manifestRepository.put(ManifestEntry.HISTORY_FINGERPRINT, fingerprint());
+        manifestRepository.put(ManifestEntry.HISTORY_WATERMARK, today.toString());
+        logDuration(startTime, rows);
+    }
+
+    /**
+     * Appends the days after the watermark up to today. Each stock's new days bridge from its close on
+     * the watermark to its current price, and days that fell out of the history window are removed.
+     */
+    private void extendHistoricalData(LocalDate watermark, LocalDate today) {
+        long startTime = System.nanoTime();
+        List<Stock> stocks = historyStocks();
+        int days = (int) ChronoUnit.DAYS.between(watermark, today);
+        LocalDate first = watermark.plusDays(1);
+        Map<String, SplittableRandom> randoms = historyGenerator.randoms(stocks, today.toEpochDay());
+        PriceModel.Run run = historyGenerator.start(first, days);
+        Map<String, Long> previousCloses = new HashMap<>();
+        for (HistoricalPrice price : historicalPriceRepository.findBySymbolInAndDate(
+                stocks.stream().map(Stock::getSymbol).toList(), watermark)) {
+            previousCloses.put(price.getSymbol(), PriceBook.toCents(price.getClose()));
+        }
 
-            stock.setPrice(lastClosePrice);
+        long rows = copyLoader.load(stocks, (long) stocks.size() * days, first, (stock, writer) -> {
+            SplittableRandom random = randoms.get(stock.getSymbol());
+            Long previousClose = previousCloses.get(stock.getSymbol());
+            PricePath path = previousClose != null
+                    ? historyGenerator.bridge(stock, random, previousClose, run, days)
+                    : historyGenerator.generate(stock, random, run, days);
+            for (int day = 0; day < days; day++) {
+                writer.add(stock.getSymbol(), first.plusDays(day), path.openCents(day), path.closeCents(day),
+                        path.highCents(day), path.lowCents(day), path.volume(day));
+            }
         });
+        int expired = copyLoader.deleteBefore(today.minusDays(historyDays() - 1L));
+        manifestRepository.put(ManifestEntry.HISTORY_WATERMARK, today.toString());
+        log.info("Removed {} historical prices older than the history window", expired);
+        logDuration(startTime, rows);
+    }
 
+    private List<Stock> historyStocks() {
+        List<Stock> stocks = new ArrayList<>(stockRepository.findAll());
+        stocks.sort(Comparator.comparing(Stock::getSymbol));
+        if (historyProperties.getSymbols() > 0 && historyProperties.getSymbols() < stocks.size()) {
+            stocks = stocks.subList(0, historyProperties.getSymbols());
+        }
+        return stocks;
+    }
 
-        stockRepository.saveAll(stocks);
+    private int historyDays() {
+        return Math.max(1, historyProperties.getDays());
+    }
+
+    /**
+     * Everything the generated history depends on besides the current date: the ingested universe and
+     * the generator settings.
+     */
+    private String fingerprint() {
+        return String.join("|", manifestRepository.value(ManifestEntry.UNIVERSE_SHA256).orElse(""),
+                historyProperties.getModel(), String.valueOf(historyProperties.getSeed()),
+                String.valueOf(historyDays()), String.valueOf(historyProperties.getSymbols()),
+                String.valueOf(historyProperties.getDrift()), String.valueOf(historyProperties.getVolatility()),
+                String.valueOf(historyProperties.getJumpIntensity()), String.valueOf(historyProperties.getJumpMean()),
+                String.valueOf(historyProperties.getJumpVolatility()),
+                String.valueOf(historyProperties.getSectorCorrelation()));
+    }
 
+    private static void logDuration(long startTime, long rows) {
         long endTime = System.nanoTime();
         long durationInNanos = endTime - startTime;
         double durationInSeconds = durationInNanos / 1_000_000_000.0;
-        log.info("\u001B[31mHistorical data generated in: {} seconds.\u001B[0m", String.format("%.2f",
-                durationInSeconds));
+        log.info("\u001B[31mHistorical data generated in: {} seconds ({} rows, {} rows/s).\u001B[0m",
+                String.format("%.2f", durationInSeconds), rows, String.format("%.0f", rows / durationInSeconds));
+    }
+
+    /**
+     * Streams the rows of the symbol's time series selected by the query from the
+     * {@link HistoricalPriceCache}, falling back to the repository for symbols the cache does not hold
+     * yet.
+     */
+    public StreamingResponseBody streamTimeSeriesForSymbol(String symbol, HistoryQuery query) {
+        return out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                if (!historicalPriceCache.write(symbol, query, json)) {
+                    historicalPriceCache.write(symbol, findPrices(List.of(symbol), query).getOrDefault(symbol,
+                            List.of()), query, json);
+                }
+            }
+        };
+    }
+
+    /**
+     * Streams a JSON array with the time series of each distinct symbol, in the order given. Symbols the
+     * cache does not hold are loaded together with one query.
+     */
+    public StreamingResponseBody streamTimeSeriesForSymbols(List<String> symbols, HistoryQuery query) {
+        Set<String> distinct = new LinkedHashSet<>(symbols);
+        return out -> {
+            List<String> uncached = distinct.stream().filter(symbol -> !historicalPriceCache.contains(symbol)).toList();
+            Map<String, List<HistoricalPrice>> loaded = uncached.isEmpty() ? Map.of() : findPrices(uncached, query);
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                for (String symbol : distinct) {
+                    if (!historicalPriceCache.write(symbol, query, json)) {
+                        historicalPriceCache.write(symbol, loaded.getOrDefault(symbol, List.of()), query, json);
+                    }
+                }
+                json.writeEndArray();
+            }
+        };
     }
 
-    public TimeSeriesDTO getTimeSeriesForSymbol(String symbol) {
-        List<HistoricalPrice> prices = historicalPriceRepository.findBySymbolOrderByDateAsc(symbol);
-        List<TimeSeriesData> history = prices.stream().map(p -> new TimeSeriesData(p.getDate(), p.getOpen(),
-                p.getClose(), p.getHigh(), p.getLow(), p.getVolume())).toList();
-        return new TimeSeriesDTO(symbol, history);
+    private Map<String, List<HistoricalPrice>> findPrices(List<String> symbols, HistoryQuery query) {
+        List<HistoricalPrice> prices = historicalPriceRepository.findBySymbolInAndDateBetweenOrderBySymbolAscDateAsc(
+                symbols, query.from() != null ? query.from() : LocalDate.EPOCH,
+                query.to() != null ? query.to() : LocalDate.of(9999, 12, 31));
+        return prices.stream().collect(Collectors.groupingBy(HistoricalPrice::getSymbol));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.service;
+
+import com.smoothstack.live_data.dto.IntradayDTO;
+import com.smoothstack.live_data.store.BarAggregator;
+import com.smoothstack.live_data.store.BarResolution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+
+@Service
+public class IntradayService {
+    @Autowired
+    private BarAggregator barAggregator;
+
+    /**
+     * Bars of live prices for the symbol starting within {@code [from, to)}; either bound may be null.
+     */
+    public IntradayDTO getIntraday(String symbol, String resolutionCode, Instant from, Instant to) {
+        BarResolution resolution = BarResolution.fromCode(resolutionCode);
+        if (resolution == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown resolution: " + resolutionCode);
+        }
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        return new IntradayDTO(symbol, resolution.code(),
+                barAggregator.bars(symbol, resolution, fromMillis, toMillis));
+    }
+}
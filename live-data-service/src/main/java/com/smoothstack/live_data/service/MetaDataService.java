@@ -15,25 +15,48 @@
 
 package com.smoothstack.live_data.service;
 
-import com.smoothstack.live_data.dao.StockRepository;
-import com.smoothstack.live_data.dto.MetaDataDTO;
-import com.smoothstack.live_data.model.Stock;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smoothstack.live_data.store.MetaDataIndex;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 @Service
 public class MetaDataService {
-    @Autowired
-    private final StockRepository sr;
+    private final MetaDataIndex index;
+
+    private final ObjectMapper objectMapper;
+
+    public MetaDataService(MetaDataIndex index, ObjectMapper objectMapper) {
+        this.index = index;
+        this.objectMapper = objectMapper;
+    }
 
-    public MetaDataService(StockRepository sr) {
-        this.sr = sr;
+    public MetaDataIndex.Snapshot snapshot() {
+        return index.snapshot();
     }
 
-    public MetaDataDTO getTimeSeriesForSymbol(String symbol) {
-        Stock stock = sr.findBySymbol(symbol);
-        return new MetaDataDTO(stock.getSymbol(), stock.getSecurity(), stock.getSecFilings(),
-                stock.getGicsSector(), stock.getGicsSubIndustry(), stock.getHeadquartersLocation(),
-                stock.getDateFirstAdded(), stock.getCik(), stock.getFounded());
+    /**
+     * Streams a JSON array with the metadata of each known symbol from the snapshot, in the order given.
+     * Unknown symbols are skipped.
+     */
+    public StreamingResponseBody streamMetaDataForSymbols(MetaDataIndex.Snapshot snapshot, List<String> symbols) {
+        Set<String> distinct = new LinkedHashSet<>(symbols);
+        return out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                for (String symbol : distinct) {
+                    MetaDataIndex.Entry entry = snapshot.get(symbol);
+                    if (entry != null) {
+                        json.writeRawValue(entry.json());
+                    }
+                }
+                json.writeEndArray();
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.service;
+
+import com.smoothstack.live_data.config.StreamProperties;
+import com.smoothstack.live_data.engine.PriceBook;
+import com.smoothstack.live_data.engine.PriceStream;
+import com.smoothstack.live_data.engine.PriceTick;
+import com.smoothstack.live_data.websocket.StockUpdateEncoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams price updates as Server-Sent Events. Each event carries a protocol 1
+ * {@code {"updates":{...}}} document and, as its id, the last sequence number it covers, so a client
+ * reconnecting with {@code Last-Event-ID} resumes where it left off from the tick journal. A new client,
+ * or one whose position has already been evicted, starts with a snapshot of its symbols.
+ */
+@Service
+public class PriceStreamService {
+    private static final String EVENT_NAME = "prices";
+
+    @Autowired
+    private PriceStream priceStream;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private StreamProperties properties;
+
+    public Flux<ServerSentEvent<String>> stream(Collection<String> symbols, Long lastEventId) {
+        Set<String> filter = new LinkedHashSet<>(symbols);
+        AtomicBoolean missed = new AtomicBoolean();
+        return priceStream.ticksSince(lastEventId)
+                .onBackpressureBuffer(Math.max(1, properties.getMaxQueuedFrames()), dropped -> missed.set(true),
+                        BufferOverflowStrategy.DROP_OLDEST)
+                .handle((PriceTick tick, SynchronousSink<ServerSentEvent<String>> sink) -> {
+                    if (missed.getAndSet(false)) {
+                        sink.next(event(priceBook.lastSequence(), StockUpdateEncoder.updatesSnapshot(filter, priceBook)));
+                        return;
+                    }
+                    String frame = StockUpdateEncoder.updatesFrame(tick, filter);
+                    if (frame != null) {
+                        sink.next(event(tick.lastSequence(), frame));
+                    }
+                });
+    }
+
+    private static ServerSentEvent<String> event(long sequence, String data) {
+        return ServerSentEvent.<String>builder()
+                .id(Long.toString(sequence))
+                .event(EVENT_NAME)
+                .data(data)
+                .build();
+    }
+}
@@ -15,118 +15,178 @@
 
 package com.smoothstack.live_data.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.smoothstack.live_data.dao.StockRepository;
-import com.smoothstack.live_data.dto.StockPriceEvent;
-import com.smoothstack.live_data.model.Stock;
-import jakarta.annotation.PostConstruct;
+import com.smoothstack.live_data.engine.PriceBook;
+import com.smoothstack.live_data.engine.TickBatch;
+import com.smoothstack.live_data.engine.TickJournal;
+import com.smoothstack.live_data.engine.TickListener;
+import com.smoothstack.live_data.websocket.FrameFormat;
+import com.smoothstack.live_data.websocket.OutboundChannel;
+import com.smoothstack.live_data.websocket.Selection;
+import com.smoothstack.live_data.websocket.StockStreamSender;
+import com.smoothstack.live_data.websocket.StockSubscriber;
+import com.smoothstack.live_data.websocket.StockUpdateEncoder;
+import com.smoothstack.live_data.websocket.SubscriptionIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Service
-public class RealTimeDataService {
+public class RealTimeDataService implements TickListener {
     @Autowired
-    private StockRepository stockRepository;
-    private final Map<WebSocketSession, Set<String>> sessionSubscriptions = new ConcurrentHashMap<>();
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final Map<String, BigDecimal> stockUpdates = new ConcurrentHashMap<>();
+    private PriceBook priceBook;
+    private final SubscriptionIndex subscriptions = new SubscriptionIndex();
+    private final StockUpdateEncoder encoder = new StockUpdateEncoder();
 
-    private double DRIFT_PERCENTAGE = 0.02;
-    private double VOLATILITY_PERCENTAGE = 0.05;
-    private int TIME_FRAME_IN_SECONDS = 3600;
-    private final int UPDATE_FREQUENCY = 5;
+    @Autowired
+    private StockStreamSender sender;
+
+    @Autowired
+    private TickJournal journal;
 
+    private int bookVersion;
 
-    @PostConstruct
-    public void init() {
+    public void register(WebSocketSession session) {
+        StockSubscriber subscriber = subscriptions.register(session);
+        subscriber.setChannel(sender.open(session,
+                () -> StockUpdateEncoder.snapshot(subscriber.getSymbols(), priceBook, subscriber.getFormat()),
+                () -> subscriber.getFormat().isDelta()));
+    }
 
-        Executors.newSingleThreadScheduledExecutor()
-                .scheduleAtFixedRate(this::updateStockPrices, 0, UPDATE_FREQUENCY, TimeUnit.SECONDS);
+    public void send(WebSocketSession session, WebSocketMessage<?> message) {
+        StockSubscriber subscriber = subscriptions.get(session);
+        if (subscriber != null && subscriber.getChannel() != null) {
+            subscriber.getChannel().send(message);
+        }
     }
 
     public void addSubscriptions(WebSocketSession session, List<String> symbols) {
-        sessionSubscriptions.computeIfAbsent(session, k -> ConcurrentHashMap.newKeySet()).addAll(symbols);
+        addSubscriptions(session, symbols, FrameFormat.UPDATES_JSON);
     }
 
-    public void removeSubscriptions(WebSocketSession session, List<String> symbols) {
-        Set<String> subscriptions = sessionSubscriptions.get(session);
-        if (subscriptions != null) {
-            symbols.forEach(subscriptions::remove);
-            if (subscriptions.isEmpty()) {
-                sessionSubscriptions.remove(session);
+    public void addSubscriptions(WebSocketSession session, List<String> symbols, FrameFormat format) {
+        addSubscriptions(session, symbols, format, null);
+    }
+
+    /**
+     * Subscribes the session to the symbols. With a {@code resumeFrom} sequence number the session is
+     * caught up on the updates it missed from the {@link TickJournal}; if the journal no longer reaches
+     * back that far, or for a fresh delta subscription, it is sent a snapshot instead. Only delta formats
+     * carry sequence numbers, so {@code resumeFrom} is ignored for {@link FrameFormat#UPDATES_JSON}.
+     */
+    public void addSubscriptions(WebSocketSession session, List<String> symbols, FrameFormat format, Long resumeFrom) {
+        StockSubscriber subscriber = subscriptions.subscribe(session, symbols);
+        subscriber.setFormat(format);
+        OutboundChannel channel = subscriber.getChannel();
+        if (channel == null) {
+            return;
+        }
+        // Holding the subscriber keeps live frames from overtaking the catch-up frame.
+        synchronized (subscriber) {
+            TickBatch missed = new TickBatch();
+            if (format.isDelta() && resumeFrom != null && journal.readSince(resumeFrom, missed)) {
+                WebSocketMessage<?> replay = replay(missed, symbols, format);
+                if (replay != null) {
+                    channel.send(replay);
+                }
+            } else if (format.isDelta()) {
+                channel.send(StockUpdateEncoder.snapshot(symbols, priceBook, format));
             }
         }
     }
 
-    public void removeAllSubscriptions(WebSocketSession session) {
-        sessionSubscriptions.remove(session);
+    /**
+     * Encodes the latest journaled update of each of the symbols as one frame, or returns null if none
+     * of them changed.
+     */
+    private WebSocketMessage<?> replay(TickBatch missed, List<String> symbols, FrameFormat format) {
+        BitSet wanted = new BitSet(priceBook.size());
+        for (String symbol : symbols) {
+            int id = priceBook.indexOf(symbol);
+            if (id >= 0) {
+                wanted.set(id);
+            }
+        }
+        Selection selection = new Selection();
+        for (int i = missed.size() - 1; i >= 0; i--) {
+            int id = missed.symbolId(i);
+            if (wanted.get(id)) {
+                wanted.clear(id);
+                selection.add(i);
+            }
+        }
+        if (selection.size() == 0) {
+            return null;
+        }
+        TickBatch latest = new TickBatch();
+        latest.reset(0, selection.size());
+        Selection all = new Selection();
+        for (int i = selection.size() - 1; i >= 0; i--) {
+            int index = selection.get(i);
+            latest.add(missed.symbolId(index), missed.priceCents(index), missed.sequence(index));
+            all.add(latest.size() - 1);
+        }
+        StockUpdateEncoder replayEncoder = new StockUpdateEncoder();
+        replayEncoder.beginTick(latest, priceBook::symbolAt);
+        return replayEncoder.encode(all, format);
     }
 
+    public void removeSubscriptions(WebSocketSession session, List<String> symbols) {
+        subscriptions.unsubscribe(session, symbols);
+    }
 
-    private void updateStockPrices() {
-        List<Stock> stocks = stockRepository.findAll();
-        Random random = new Random();
-
-        double driftPerUpdate = (DRIFT_PERCENTAGE / TIME_FRAME_IN_SECONDS) * UPDATE_FREQUENCY;
-        double volatilityPerUpdate =
-                VOLATILITY_PERCENTAGE * Math.sqrt((double) UPDATE_FREQUENCY / TIME_FRAME_IN_SECONDS);
-
-        for (Stock stock : stocks) {
-            double randomWalk = random.nextGaussian() * volatilityPerUpdate;
-            double totalChange = driftPerUpdate + randomWalk;
-
-            BigDecimal currentPrice = stock.getPrice();
-            BigDecimal priceChange = currentPrice.multiply(BigDecimal.valueOf(totalChange));
-            BigDecimal newPrice = currentPrice.add(priceChange).setScale(2, RoundingMode.HALF_UP);
-
-            BigDecimal minPrice = new BigDecimal("0.01");
-            if (newPrice.compareTo(minPrice) < 0) {
-                newPrice = minPrice;
-            }
-
-            stock.setPrice(newPrice);
-            stockRepository.save(stock);
-            stockUpdates.put(stock.getSymbol(), stock.getPrice());
+    public void removeAllSubscriptions(WebSocketSession session) {
+        StockSubscriber subscriber = subscriptions.remove(session);
+        if (subscriber != null && subscriber.getChannel() != null) {
+            subscriber.getChannel().release();
         }
-        notifySubscribers();
     }
 
-    private void notifySubscribers() {
-        StockPriceEvent event = new StockPriceEvent(new HashMap<>(stockUpdates));
-        for (Map.Entry<WebSocketSession, Set<String>> entry : sessionSubscriptions.entrySet()) {
-            Map<String, BigDecimal> relevantUpdates = event.updates().entrySet().stream()
-                    .filter(update -> entry.getValue().contains(update.getKey()))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 
-            if (!relevantUpdates.isEmpty()) {
-                sendStockUpdate(entry.getKey(), new StockPriceEvent(relevantUpdates));
+    /**
+     * Periodically resends a full snapshot to delta subscribers so a client that missed or misapplied a
+     * frame converges again.
+     */
+    @Scheduled(fixedDelayString = "${live-data.stream.resync-interval-ms:30000}")
+    public void resyncDeltaSubscribers() {
+        for (StockSubscriber subscriber : subscriptions.all()) {
+            if (subscriber.getFormat().isDelta() && !subscriber.getSymbols().isEmpty()
+                    && subscriber.getChannel() != null) {
+                subscriber.getChannel().send(
+                        StockUpdateEncoder.snapshot(subscriber.getSymbols(), priceBook, subscriber.getFormat()));
             }
         }
-        stockUpdates.clear();
     }
 
-    private void sendStockUpdate(WebSocketSession session, StockPriceEvent event) {
-        try {
-            String eventJson = objectMapper.writeValueAsString(event);
-            session.sendMessage(new TextMessage(eventJson));
-        } catch (IOException e) {
-            System.err.println("Error sending stock update: " + e.getMessage());
-            try {
-                session.close();
-            } catch (IOException ex) {
-                System.err.println("Error closing WebSocket session: " + ex.getMessage());
+    @Override
+    public void onTick(TickBatch batch) {
+        if (bookVersion != priceBook.version()) {
+            // Symbol ids may have moved; delta subscribers need the new mapping before further deltas.
+            bookVersion = priceBook.version();
+            resyncDeltaSubscribers();
+        }
+        if (batch.isEmpty() || subscriptions.isEmpty()) {
+            return;
+        }
+        Map<StockSubscriber, Selection> pending = new IdentityHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            String symbol = priceBook.symbolAt(batch.symbolId(i));
+            for (StockSubscriber subscriber : subscriptions.subscribersOf(symbol)) {
+                pending.computeIfAbsent(subscriber, k -> new Selection()).add(i);
             }
         }
+
+        encoder.beginTick(batch, priceBook::symbolAt);
+        pending.forEach((subscriber, selection) -> {
+            OutboundChannel channel = subscriber.getChannel();
+            if (channel != null) {
+                synchronized (subscriber) {
+                    channel.send(encoder.encode(selection, subscriber.getFormat()));
+                }
+            }
+        });
     }
-}
\ No newline at end of file
+}
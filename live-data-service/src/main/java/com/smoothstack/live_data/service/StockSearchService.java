@@ -0,0 +1,66 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.service;
+
+import com.smoothstack.live_data.dto.MetaDataDTO;
+import com.smoothstack.live_data.dto.StockSearchResultDTO;
+import com.smoothstack.live_data.engine.PriceBook;
+import com.smoothstack.live_data.store.HistoricalPriceCache;
+import com.smoothstack.live_data.store.StockSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class StockSearchService {
+    @Autowired
+    private StockSearchIndex searchIndex;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private HistoricalPriceCache historicalPriceCache;
+
+    /**
+     * Searches the universe and adds the live price of each match and its change since the previous
+     * daily close, in percent.
+     */
+    public List<StockSearchResultDTO> search(String query, String gicsSector, String gicsSubIndustry, int limit) {
+        LocalDate today = LocalDate.now();
+        return searchIndex.search(query, gicsSector, gicsSubIndustry, limit).stream()
+                .map(match -> toResult(match.metaData(), today))
+                .toList();
+    }
+
+    private StockSearchResultDTO toResult(MetaDataDTO stock, LocalDate today) {
+        BigDecimal price = priceBook.getPrice(stock.symbol());
+        BigDecimal changePercent = null;
+        long previousClose = historicalPriceCache.closeBeforeCents(stock.symbol(), today);
+        if (price != null && previousClose > 0) {
+            BigDecimal close = BigDecimal.valueOf(previousClose, 2);
+            changePercent = price.subtract(close).multiply(BigDecimal.valueOf(100))
+                    .divide(close, 2, RoundingMode.HALF_UP);
+        }
+        return new StockSearchResultDTO(stock.symbol(), stock.security(), stock.gicsSector(),
+                stock.gicsSubIndustry(), price, changePercent);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import com.smoothstack.live_data.config.TickStoreProperties;
+import com.smoothstack.live_data.dto.IntradayBarDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolls stored ticks into one-minute and one-hour OHLC bars as they are written, so intraday queries
+ * read bars instead of replaying ticks.
+ */
+@Component
+public class BarAggregator {
+    @Autowired
+    private TickStoreProperties properties;
+
+    private final Map<String, BarSeries[]> series = new ConcurrentHashMap<>();
+
+    public void add(String symbol, long timeMillis, long priceCents) {
+        for (BarSeries bars : series.computeIfAbsent(symbol, s -> newSeries())) {
+            bars.add(timeMillis, priceCents);
+        }
+    }
+
+    public List<IntradayBarDTO> bars(String symbol, BarResolution resolution, long fromMillis, long toMillis) {
+        BarSeries[] bars = series.get(symbol);
+        return bars == null ? List.of() : bars[resolution.ordinal()].range(fromMillis, toMillis);
+    }
+
+    private BarSeries[] newSeries() {
+        BarSeries[] bars = new BarSeries[BarResolution.values().length];
+        bars[BarResolution.MINUTE.ordinal()] = new BarSeries(BarResolution.MINUTE.periodMillis(),
+                Math.max(1, properties.getMinuteBarHours()) * 60);
+        bars[BarResolution.HOUR.ordinal()] = new BarSeries(BarResolution.HOUR.periodMillis(),
+                Math.max(1, properties.getRetentionDays()) * 24);
+        return bars;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import java.util.concurrent.TimeUnit;
+
+public enum BarResolution {
+    MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+    HOUR("1h", TimeUnit.HOURS.toMillis(1));
+
+    private final String code;
+    private final long periodMillis;
+
+    BarResolution(String code, long periodMillis) {
+        this.code = code;
+        this.periodMillis = periodMillis;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public long periodMillis() {
+        return periodMillis;
+    }
+
+    /**
+     * Looks a resolution up by its code, such as {@code 1m}; returns null if there is none.
+     */
+    public static BarResolution fromCode(String code) {
+        for (BarResolution resolution : values()) {
+            if (resolution.code.equalsIgnoreCase(code)) {
+                return resolution;
+            }
+        }
+        return null;
+    }
+}
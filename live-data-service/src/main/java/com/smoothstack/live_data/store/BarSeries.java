@@ -0,0 +1,110 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import com.smoothstack.live_data.dto.IntradayBarDTO;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bars of one symbol at one resolution: the bar currently being built and a ring of the most recent
+ * completed ones, as parallel primitive arrays.
+ */
+final class BarSeries {
+    private final long periodMillis;
+    private final long[] starts;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] volumes;
+    private long completed;
+
+    private long start = Long.MIN_VALUE;
+    private long open;
+    private long high;
+    private long low;
+    private long close;
+    private long volume;
+
+    BarSeries(long periodMillis, int capacity) {
+        this.periodMillis = periodMillis;
+        this.starts = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.volumes = new long[capacity];
+    }
+
+    synchronized void add(long timeMillis, long priceCents) {
+        long barStart = timeMillis - Math.floorMod(timeMillis, periodMillis);
+        if (barStart != start) {
+            if (barStart < start) {
+                // The clock went backwards; fold the update into the current bar.
+                barStart = start;
+            } else {
+                if (start != Long.MIN_VALUE) {
+                    complete();
+                }
+                start = barStart;
+                open = high = low = priceCents;
+                volume = 0;
+            }
+        }
+        high = Math.max(high, priceCents);
+        low = Math.min(low, priceCents);
+        close = priceCents;
+        volume++;
+    }
+
+    /**
+     * Bars starting within {@code [fromMillis, toMillis)}, oldest first, including the one in progress.
+     */
+    synchronized List<IntradayBarDTO> range(long fromMillis, long toMillis) {
+        List<IntradayBarDTO> bars = new ArrayList<>();
+        int capacity = starts.length;
+        for (long n = Math.max(0, completed - capacity); n < completed; n++) {
+            int slot = (int) (n % capacity);
+            if (starts[slot] >= fromMillis && starts[slot] < toMillis) {
+                bars.add(bar(starts[slot], opens[slot], highs[slot], lows[slot], closes[slot], volumes[slot]));
+            }
+        }
+        if (start != Long.MIN_VALUE && start >= fromMillis && start < toMillis) {
+            bars.add(bar(start, open, high, low, close, volume));
+        }
+        return bars;
+    }
+
+    private void complete() {
+        int slot = (int) (completed++ % starts.length);
+        starts[slot] = start;
+        opens[slot] = open;
+        highs[slot] = high;
+        lows[slot] = low;
+        closes[slot] = close;
+        volumes[slot] = volume;
+    }
+
+    private static IntradayBarDTO bar(long start, long open, long high, long low, long close, long volume) {
+        return new IntradayBarDTO(Instant.ofEpochMilli(start), BigDecimal.valueOf(open, 2),
+                BigDecimal.valueOf(high, 2), BigDecimal.valueOf(low, 2), BigDecimal.valueOf(close, 2), volume);
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.smoothstack.live_data.engine.PriceBook;
+import com.smoothstack.live_data.event.HistoricalDataGeneratedEvent;
+import com.smoothstack.live_data.model.HistoricalPrice;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-optimized copy of the {@code historical_price} table for {@code /history/{symbol}}.
+ * <p>
+ * Rows are held column by column in off-heap buffers: epoch day, open, close, high and low in cents,
+ * and volume, with each symbol's rows contiguous and in date order. The columns are rebuilt whenever
+ * a {@link HistoricalDataGeneratedEvent} is published and swapped in whole, so readers always see one
+ * consistent load. Responses are written straight from the columns to a {@link JsonGenerator}. A table
+ * with more than {@link #MAX_ROWS} rows is not cached, and its history is read from the database.
+ */
+@Component
+@Slf4j
+public class HistoricalPriceCache {
+    private static final String COUNT_SQL = "SELECT count(*) FROM historical_price";
+    private static final String LOAD_SQL =
+            "SELECT symbol, date, open, close, high, low, volume FROM historical_price ORDER BY symbol, date";
+    /**
+     * Rows whose widest column, 8 bytes a row, still fits one buffer.
+     */
+    static final long MAX_ROWS = Integer.MAX_VALUE / Long.BYTES;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Columns columns;
+
+    @EventListener(HistoricalDataGeneratedEvent.class)
+    public void onHistoricalDataGenerated() {
+        load();
+    }
+
+    public synchronized void load() {
+        long start = System.nanoTime();
+        Long rows = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+        if (rows != null && rows > MAX_ROWS) {
+            columns = null;
+            log.error("Not caching {} historical prices: the cache holds at most {} rows. History is read from the "
+                    + "database instead; lower live-data.history.days or live-data.history.symbols to cache it.",
+                    rows, MAX_ROWS);
+            return;
+        }
+        Columns loaded = new Columns(rows == null ? 0 : rows.intValue(), true);
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            loaded.add(rs.getString(1), (int) rs.getDate(2).toLocalDate().toEpochDay(),
+                    PriceBook.toCents(rs.getBigDecimal(3)), PriceBook.toCents(rs.getBigDecimal(4)),
+                    PriceBook.toCents(rs.getBigDecimal(5)), PriceBook.toCents(rs.getBigDecimal(6)), rs.getLong(7));
+        });
+        columns = loaded;
+        log.info("Cached {} historical prices of {} symbols in {} ms", loaded.size, loaded.ranges.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public boolean contains(String symbol) {
+        Columns snapshot = columns;
+        return snapshot != null && snapshot.ranges.containsKey(symbol);
+    }
+
+    /**
+     * The close, in cents, of the symbol's latest cached day before {@code day}, or -1 if there is none.
+     */
+    public long closeBeforeCents(String symbol, LocalDate day) {
+        Columns snapshot = columns;
+        int[] range = snapshot == null ? null : snapshot.ranges.get(symbol);
+        if (range == null) {
+            return -1;
+        }
+        int row = lowerBound(snapshot.epochDays, range[0], range[0] + range[1], (int) day.toEpochDay()) - 1;
+        return row < range[0] ? -1 : snapshot.closes.get(row);
+    }
+
+    /**
+     * Writes the rows of the symbol selected by the query as a {@code TimeSeriesDTO} object. Returns
+     * false, without writing anything, if the symbol is not cached.
+     */
+    public boolean write(String symbol, HistoryQuery query, JsonGenerator json) throws IOException {
+        Columns snapshot = columns;
+        int[] range = snapshot == null ? null : snapshot.ranges.get(symbol);
+        if (range == null) {
+            return false;
+        }
+        write(snapshot, range[0], range[0] + range[1], symbol, query, json);
+        return true;
+    }
+
+    /**
+     * Writes rows loaded elsewhere, in date order, the same way as cached ones.
+     */
+    public void write(String symbol, List<HistoricalPrice> prices, HistoryQuery query, JsonGenerator json)
+            throws IOException {
+        Columns rows = new Columns(prices.size(), false);
+        for (HistoricalPrice price : prices) {
+            rows.add(symbol, (int) price.getDate().toEpochDay(), PriceBook.toCents(price.getOpen()),
+                    PriceBook.toCents(price.getClose()), PriceBook.toCents(price.getHigh()),
+                    PriceBook.toCents(price.getLow()), price.getVolume() == null ? 0 : price.getVolume());
+        }
+        write(rows, 0, rows.size, symbol, query, json);
+    }
+
+    private static void write(Columns rows, int first, int end, String symbol, HistoryQuery query, JsonGenerator json)
+            throws IOException {
+        IntBuffer days = rows.epochDays;
+        int lower = query.from() == null ? first : lowerBound(days, first, end, (int) query.from().toEpochDay());
+        int upper = query.to() == null ? end : lowerBound(days, lower, end, (int) query.to().toEpochDay() + 1);
+        HistoryResolution resolution = query.resolution();
+
+        int start = upper;
+        if (query.limit() != null) {
+            // Walk back from the newest row until the limit-th bar would begin.
+            int bars = 0;
+            long bucket = Long.MIN_VALUE;
+            while (start > lower) {
+                long previous = resolution.bucketOf(days.get(start - 1));
+                if (previous != bucket) {
+                    if (bars == query.limit()) {
+                        break;
+                    }
+                    bars++;
+                    bucket = previous;
+                }
+                start--;
+            }
+        } else {
+            start = lower;
+        }
+
+        json.writeStartObject();
+        json.writeStringField("symbol", symbol);
+        json.writeArrayFieldStart("data");
+        int row = start;
+        while (row < upper) {
+            // Merge the rows of one bar: first open, last close, extreme high and low, summed volume.
+            long bucket = resolution.bucketOf(days.get(row));
+            int epochDay = days.get(row);
+            long open = rows.opens.get(row);
+            long close = rows.closes.get(row);
+            long high = rows.highs.get(row);
+            long low = rows.lows.get(row);
+            long volume = rows.volumes.get(row);
+            row++;
+            while (row < upper && resolution.bucketOf(days.get(row)) == bucket) {
+                close = rows.closes.get(row);
+                high = Math.max(high, rows.highs.get(row));
+                low = Math.min(low, rows.lows.get(row));
+                volume += rows.volumes.get(row);
+                row++;
+            }
+            json.writeStartObject();
+            json.writeStringField("date", LocalDate.ofEpochDay(epochDay).toString());
+            writeCents(json, "open", open);
+            writeCents(json, "close", close);
+            writeCents(json, "high", high);
+            writeCents(json, "low", low);
+            json.writeNumberField("volume", volume);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * First row in {@code [first, end)} dated on or after the epoch day.
+     */
+    private static int lowerBound(IntBuffer days, int first, int end, int epochDay) {
+        int low = first;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days.get(mid) < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void writeCents(JsonGenerator json, String field, long cents) throws IOException {
+        json.writeFieldName(field);
+        json.writeNumber(PriceBook.formatCents(cents));
+    }
+
+    private static final class Columns {
+        final IntBuffer epochDays;
+        final LongBuffer opens;
+        final LongBuffer closes;
+        final LongBuffer highs;
+        final LongBuffer lows;
+        final LongBuffer volumes;
+        /**
+         * Offset and length of each symbol's rows.
+         */
+        final Map<String, int[]> ranges = new HashMap<>();
+        final int capacity;
+        int size;
+        private int[] current;
+
+        Columns(int capacity, boolean offHeap) {
+            if (capacity > MAX_ROWS) {
+                throw new IllegalArgumentException(
+                        "Cannot hold " + capacity + " historical prices in columns of at most " + MAX_ROWS + " rows");
+            }
+            this.capacity = capacity;
+            epochDays = allocate((long) capacity * Integer.BYTES, offHeap).asIntBuffer();
+            opens = allocate((long) capacity * Long.BYTES, offHeap).asLongBuffer();
+            closes = allocate((long) capacity * Long.BYTES, offHeap).asLongBuffer();
+            highs = allocate((long) capacity * Long.BYTES, offHeap).asLongBuffer();
+            lows = allocate((long) capacity * Long.BYTES, offHeap).asLongBuffer();
+            volumes = allocate((long) capacity * Long.BYTES, offHeap).asLongBuffer();
+        }
+
+        void add(String symbol, int epochDay, long open, long close, long high, long low, long volume) {
+            if (size == capacity) {
+                // Rows inserted after the count; they are picked up by the next load.
+                return;
+            }
+            if (current == null || !ranges.containsKey(symbol)) {
+                current = new int[]{size, 0};
+                ranges.put(symbol, current);
+            }
+            epochDays.put(size, epochDay);
+            opens.put(size, open);
+            closes.put(size, close);
+            highs.put(size, high);
+            lows.put(size, low);
+            volumes.put(size, volume);
+            current[1]++;
+            size++;
+        }
+
+        private static ByteBuffer allocate(long bytes, boolean offHeap) {
+            return offHeap ? ByteBuffer.allocateDirect((int) bytes) : ByteBuffer.allocate((int) bytes);
+        }
+    }
+}
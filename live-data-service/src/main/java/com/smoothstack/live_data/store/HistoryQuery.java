@@ -0,0 +1,26 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import java.time.LocalDate;
+
+/**
+ * Which rows of a symbol's history to return: those dated within {@code [from, to]} (either bound may
+ * be null), merged to the given resolution, keeping only the latest {@code limit} bars if set.
+ */
+public record HistoryQuery(LocalDate from, LocalDate to, Integer limit, HistoryResolution resolution) {
+}
@@ -0,0 +1,57 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import java.time.LocalDate;
+
+/**
+ * Granularity of a {@code /history} response. Coarser resolutions merge daily rows into one bar per
+ * ISO week or calendar month.
+ */
+public enum HistoryResolution {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * Identifies the bar an epoch day falls into; consecutive rows with equal keys are merged.
+     */
+    long bucketOf(int epochDay) {
+        switch (this) {
+            case WEEK:
+                // 1970-01-01 was a Thursday; shifting by three days makes weeks start on Monday.
+                return Math.floorDiv(epochDay + 3, 7);
+            case MONTH:
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                return date.getYear() * 12L + date.getMonthValue();
+            default:
+                return epochDay;
+        }
+    }
+
+    /**
+     * Looks a resolution up by name, ignoring case; returns null if there is none.
+     */
+    public static HistoryResolution fromCode(String code) {
+        for (HistoryResolution resolution : values()) {
+            if (resolution.name().equalsIgnoreCase(code)) {
+                return resolution;
+            }
+        }
+        return null;
+    }
+}
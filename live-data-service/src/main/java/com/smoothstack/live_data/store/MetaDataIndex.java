@@ -0,0 +1,123 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smoothstack.live_data.dao.ManifestRepository;
+import com.smoothstack.live_data.dao.StockRepository;
+import com.smoothstack.live_data.dto.MetaDataDTO;
+import com.smoothstack.live_data.event.CsvProcessingCompletedEvent;
+import com.smoothstack.live_data.model.ManifestEntry;
+import com.smoothstack.live_data.model.Stock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable in-memory index of the metadata of every stock, with each entry already rendered as JSON
+ * and tagged with an ETag derived from it.
+ * <p>
+ * The whole index is rebuilt and swapped in whenever the universe has been ingested, so readers never
+ * see a partially loaded index and never touch the database. Its last-modified time is when the
+ * universe file was last ingested, which survives restarts that skip ingestion.
+ */
+@Component
+@Slf4j
+public class MetaDataIndex {
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private ManifestRepository manifestRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    public record Entry(MetaDataDTO metaData, String json, String eTag) {
+    }
+
+    public record Snapshot(Map<String, Entry> entries, Instant lastModified) {
+        public Entry get(String symbol) {
+            return entries.get(symbol);
+        }
+    }
+
+    @EventListener(CsvProcessingCompletedEvent.class)
+    public void onCsvProcessingCompleted() {
+        invalidate();
+    }
+
+    /**
+     * Reloads the index from the {@code Stock} table; the previous index keeps serving until the new one
+     * is complete.
+     */
+    public synchronized void invalidate() {
+        snapshot = load();
+        log.info("Metadata index loaded with {} stocks", snapshot.entries().size());
+    }
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        Map<String, Entry> entries = new HashMap<>();
+        for (Stock stock : stockRepository.findAll()) {
+            MetaDataDTO metaData = toMetaData(stock);
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(metaData);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not render metadata of " + stock.getSymbol(), e);
+            }
+            String eTag = "\"" + DigestUtils.md5DigestAsHex(json.getBytes(StandardCharsets.UTF_8)) + "\"";
+            entries.put(stock.getSymbol(), new Entry(metaData, json, eTag));
+        }
+        Instant lastModified = manifestRepository.findById(ManifestEntry.UNIVERSE_SHA256)
+                .map(ManifestEntry::getUpdatedAt)
+                .orElseGet(Instant::now)
+                .truncatedTo(ChronoUnit.SECONDS);
+        return new Snapshot(Map.copyOf(entries), lastModified);
+    }
+
+    private static MetaDataDTO toMetaData(Stock stock) {
+        return new MetaDataDTO(stock.getSymbol(), stock.getSecurity(), stock.getSecFilings(),
+                stock.getGicsSector(), stock.getGicsSubIndustry(), stock.getHeadquartersLocation(),
+                stock.getDateFirstAdded(), stock.getCik(), stock.getFounded());
+    }
+}
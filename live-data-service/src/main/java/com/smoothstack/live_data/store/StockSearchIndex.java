@@ -0,0 +1,243 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import com.smoothstack.live_data.dto.MetaDataDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Type-ahead search over the stock universe, built from the {@link MetaDataIndex} and rebuilt whenever
+ * that index is replaced.
+ * <p>
+ * Symbols and the words of security names are kept in sorted arrays, so a prefix is found with two binary
+ * searches. When no prefix matches, words starting with the same letter as the query are compared by
+ * prefix edit distance to tolerate typos. Every word of a multi-word query
+ * must prefix a word of the security name.
+ */
+@Component
+public class StockSearchIndex {
+    private static final int EXACT_SYMBOL = 0;
+    private static final int SYMBOL_PREFIX = 1;
+    private static final int EXACT_WORD = 2;
+    private static final int WORD_PREFIX = 3;
+    private static final int FUZZY = 4;
+
+    @Autowired
+    private MetaDataIndex metaDataIndex;
+
+    private volatile Index index;
+
+    public record Match(MetaDataDTO metaData, int score) {
+    }
+
+    /**
+     * Up to {@code limit} stocks matching the query and the optional sector and sub-industry filters,
+     * best matches first. Without a query every stock passing the filters matches, in ticker order.
+     */
+    public List<Match> search(String query, String gicsSector, String gicsSubIndustry, int limit) {
+        Index current = index();
+        String sector = normalizeFilter(gicsSector);
+        String subIndustry = normalizeFilter(gicsSubIndustry);
+        String[] words = words(query == null ? "" : query);
+        List<Match> matches = new ArrayList<>();
+        if (words.length == 0) {
+            for (int s = 0; s < current.stocks.length && matches.size() < limit; s++) {
+                if (current.accepts(s, sector, subIndustry)) {
+                    matches.add(new Match(current.stocks[s], SYMBOL_PREFIX));
+                }
+            }
+            return matches;
+        }
+
+        Map<Integer, Integer> scores = new HashMap<>();
+        String symbolQuery = query.trim().toUpperCase(Locale.ROOT);
+        for (int s = lowerBound(current.symbols, symbolQuery); s < current.symbols.length
+                && current.symbols[s].startsWith(symbolQuery); s++) {
+            scores.merge(s, current.symbols[s].length() == symbolQuery.length() ? EXACT_SYMBOL : SYMBOL_PREFIX,
+                    Math::min);
+        }
+        String first = words[0];
+        for (int w = lowerBound(current.words, first); w < current.words.length
+                && current.words[w].startsWith(first); w++) {
+            scores.merge(current.wordStocks[w], current.words[w].length() == first.length() ? EXACT_WORD : WORD_PREFIX,
+                    Math::min);
+        }
+        if (scores.isEmpty() && first.length() >= 3) {
+            fuzzy(current, first, scores);
+        }
+
+        scores.forEach((s, score) -> {
+            if (current.accepts(s, sector, subIndustry) && (score <= SYMBOL_PREFIX || current.hasWords(s, words))) {
+                matches.add(new Match(current.stocks[s], score));
+            }
+        });
+        matches.sort(Comparator.comparingInt(Match::score).thenComparing(match -> match.metaData().symbol()));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private static void fuzzy(Index current, String word, Map<Integer, Integer> scores) {
+        int maxDistance = word.length() <= 5 ? 1 : 2;
+        String initial = word.substring(0, 1);
+        int[] row = new int[word.length() + 1];
+        int[] previous = new int[word.length() + 1];
+        for (int w = lowerBound(current.words, initial); w < current.words.length
+                && current.words[w].startsWith(initial); w++) {
+            int distance = prefixDistance(word, current.words[w], maxDistance, row, previous);
+            if (distance <= maxDistance) {
+                scores.merge(current.wordStocks[w], FUZZY + distance, Math::min);
+            }
+        }
+    }
+
+    /**
+     * The edit distance between the query and the closest prefix of the word, or more than
+     * {@code maxDistance} if none is that close.
+     */
+    static int prefixDistance(String query, String word, int maxDistance, int[] row, int[] previous) {
+        // previous[i] is the distance between query[0, i) and the word prefix read so far.
+        for (int i = 0; i <= query.length(); i++) {
+            previous[i] = i;
+        }
+        int best = previous[query.length()];
+        for (int j = 1; j <= word.length(); j++) {
+            row[0] = j;
+            int rowMin = row[0];
+            for (int i = 1; i <= query.length(); i++) {
+                int cost = query.charAt(i - 1) == word.charAt(j - 1) ? 0 : 1;
+                row[i] = Math.min(Math.min(row[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+                rowMin = Math.min(rowMin, row[i]);
+            }
+            best = Math.min(best, row[query.length()]);
+            if (rowMin > maxDistance) {
+                break;
+            }
+            int[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return best;
+    }
+
+    private Index index() {
+        MetaDataIndex.Snapshot snapshot = metaDataIndex.snapshot();
+        Index current = index;
+        if (current == null || current.source != snapshot) {
+            current = new Index(snapshot);
+            index = current;
+        }
+        return current;
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String normalizeFilter(String filter) {
+        return filter == null || filter.isBlank() ? null : filter.trim().toUpperCase(Locale.ROOT);
+    }
+
+    static String[] words(String text) {
+        return Arrays.stream(text.toUpperCase(Locale.ROOT).split("[^\\p{Alnum}]+"))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static final class Index {
+        final MetaDataIndex.Snapshot source;
+        final MetaDataDTO[] stocks;
+        final String[] symbols;
+        final String[] sectors;
+        final String[] subIndustries;
+        final String[][] stockWords;
+        final String[] words;
+        final int[] wordStocks;
+
+        Index(MetaDataIndex.Snapshot source) {
+            this.source = source;
+            stocks = source.entries().values().stream()
+                    .map(MetaDataIndex.Entry::metaData)
+                    .sorted(Comparator.comparing(stock -> stock.symbol().toUpperCase(Locale.ROOT)))
+                    .toArray(MetaDataDTO[]::new);
+            symbols = new String[stocks.length];
+            sectors = new String[stocks.length];
+            subIndustries = new String[stocks.length];
+            stockWords = new String[stocks.length][];
+            List<int[]> postings = new ArrayList<>();
+            List<String> allWords = new ArrayList<>();
+            for (int s = 0; s < stocks.length; s++) {
+                symbols[s] = stocks[s].symbol().toUpperCase(Locale.ROOT);
+                sectors[s] = normalizeFilter(stocks[s].gicsSector());
+                subIndustries[s] = normalizeFilter(stocks[s].gicsSubIndustry());
+                stockWords[s] = words(stocks[s].security() == null ? "" : stocks[s].security());
+                for (String word : stockWords[s]) {
+                    postings.add(new int[]{allWords.size(), s});
+                    allWords.add(word);
+                }
+            }
+            postings.sort(Comparator.comparing(posting -> allWords.get(posting[0])));
+            words = new String[postings.size()];
+            wordStocks = new int[postings.size()];
+            for (int w = 0; w < words.length; w++) {
+                words[w] = allWords.get(postings.get(w)[0]);
+                wordStocks[w] = postings.get(w)[1];
+            }
+        }
+
+        boolean accepts(int s, String sector, String subIndustry) {
+            return (sector == null || sector.equals(sectors[s]))
+                    && (subIndustry == null || subIndustry.equals(subIndustries[s]));
+        }
+
+        /**
+         * Whether every query word after the first prefixes a word of the stock's security name.
+         */
+        boolean hasWords(int s, String[] query) {
+            for (int q = 1; q < query.length; q++) {
+                boolean found = false;
+                for (String word : stockWords[s]) {
+                    if (word.startsWith(query[q])) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An append-only file of fixed-width tick records, written through memory-mapped chunks.
+ * <p>
+ * Each record is {@value #RECORD_BYTES} bytes: the sequence number, the epoch millisecond of the tick,
+ * the price in cents and the index of the ticker in the segment's symbol file, a sidecar listing one
+ * ticker per line in the order they first appeared. The file grows a chunk at a time and its unused
+ * tail is zero, so the first record with sequence 0 marks the end.
+ */
+final class TickSegment implements Closeable {
+    static final int RECORD_BYTES = 32;
+    private static final long CHUNK_BYTES = 64L << 20;
+    private static final String SYMBOLS_SUFFIX = ".symbols";
+
+    interface RecordVisitor {
+        void visit(long sequence, long timeMillis, long priceCents, String symbol);
+    }
+
+    private final FileChannel channel;
+    private final Path symbolsFile;
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+    private long end;
+
+    private TickSegment(FileChannel channel, Path symbolsFile, long end) throws IOException {
+        this.channel = channel;
+        this.symbolsFile = symbolsFile;
+        this.end = end;
+        List<String> symbols = readSymbols(symbolsFile);
+        for (int id = 0; id < symbols.size(); id++) {
+            symbolIds.put(symbols.get(id), id);
+        }
+        mapChunkAt(end);
+    }
+
+    /**
+     * Opens the segment for appending after its last record, creating it if needed.
+     */
+    static TickSegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new TickSegment(channel, symbolsFile(file), findEnd(channel));
+    }
+
+    void append(long sequence, long timeMillis, long priceCents, String symbol) throws IOException {
+        Integer symbolId = symbolIds.get(symbol);
+        if (symbolId == null) {
+            // Listed before any record refers to it, so every stored id resolves.
+            Files.writeString(symbolsFile, symbol + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            symbolId = symbolIds.size();
+            symbolIds.put(symbol, symbolId);
+        }
+        if (end - chunkStart == CHUNK_BYTES) {
+            mapChunkAt(end);
+        }
+        int offset = (int) (end - chunkStart);
+        chunk.putLong(offset + 8, timeMillis);
+        chunk.putLong(offset + 16, priceCents);
+        chunk.putInt(offset + 24, symbolId);
+        // The sequence goes last so a record is only visible to a reader once it is complete.
+        chunk.putLong(offset, sequence);
+        end += RECORD_BYTES;
+    }
+
+    long records() {
+        return end / RECORD_BYTES;
+    }
+
+    void force() {
+        chunk.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Calls the visitor for every record of a segment file, in the order they were written.
+     */
+    static void forEach(Path file, RecordVisitor visitor) throws IOException {
+        List<String> symbols = readSymbols(symbolsFile(file));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long start = 0; start < size; start += CHUNK_BYTES) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(CHUNK_BYTES, size - start));
+                for (int offset = 0; offset + RECORD_BYTES <= buffer.limit(); offset += RECORD_BYTES) {
+                    long sequence = buffer.getLong(offset);
+                    if (sequence == 0) {
+                        return;
+                    }
+                    int symbolId = buffer.getInt(offset + 24);
+                    if (symbolId >= 0 && symbolId < symbols.size()) {
+                        visitor.visit(sequence, buffer.getLong(offset + 8), buffer.getLong(offset + 16),
+                                symbols.get(symbolId));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes a segment file together with its symbol file.
+     */
+    static void delete(Path file) throws IOException {
+        Files.deleteIfExists(symbolsFile(file));
+        Files.delete(file);
+    }
+
+    private static Path symbolsFile(Path file) {
+        return file.resolveSibling(file.getFileName() + SYMBOLS_SUFFIX);
+    }
+
+    private static List<String> readSymbols(Path symbolsFile) throws IOException {
+        if (!Files.exists(symbolsFile)) {
+            return new ArrayList<>();
+        }
+        List<String> symbols = new ArrayList<>();
+        for (String line : Files.readAllLines(symbolsFile, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                symbols.add(line);
+            }
+        }
+        return symbols;
+    }
+
+    private void mapChunkAt(long position) throws IOException {
+        chunkStart = position - position % CHUNK_BYTES;
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, CHUNK_BYTES);
+    }
+
+    /**
+     * Binary search for the first record whose sequence is still 0.
+     */
+    private static long findEnd(FileChannel channel) throws IOException {
+        ByteBuffer sequence = ByteBuffer.allocate(8);
+        long low = 0;
+        long high = channel.size() / RECORD_BYTES;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            sequence.clear();
+            channel.read(sequence, mid * RECORD_BYTES);
+            if (sequence.getLong(0) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low * RECORD_BYTES;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.store;
+
+import com.smoothstack.live_data.config.TickStoreProperties;
+import com.smoothstack.live_data.engine.PriceBook;
+import com.smoothstack.live_data.engine.TickBatch;
+import com.smoothstack.live_data.engine.TickJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds every price update to the {@link BarAggregator} and, if {@code live-data.tick-store.enabled} is
+ * set, records it on disk.
+ * <p>
+ * A single writer thread tails the {@link TickJournal} every {@code live-data.tick-store.poll-interval-ms}
+ * and appends what is new, stamped with the time of its tick, to the {@link TickSegment} of the current
+ * UTC day. The retained segments are replayed into the aggregator during startup, before the
+ * {@link com.smoothstack.live_data.engine.TickEngine} starts, so bars survive restarts and the journal
+ * cannot lap the writer during a long replay; segments older than the retention period are deleted.
+ */
+@Component
+@Slf4j
+public class TickStore {
+    private static final String SEGMENT_PREFIX = "ticks-";
+    private static final String SEGMENT_SUFFIX = ".ticks";
+
+    @Autowired
+    private TickStoreProperties properties;
+
+    @Autowired
+    private TickJournal journal;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private BarAggregator barAggregator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ScheduledExecutorService writer;
+    private Path directory;
+    private TickSegment segment;
+    private LocalDate segmentDay;
+    private long storedSequence;
+    private final TickBatch batch = new TickBatch();
+
+    private Counter storedUpdates;
+    private Counter lostUpdates;
+
+    @PostConstruct
+    public void start() {
+        storedUpdates = meterRegistry.counter("live_data.tick_store.records");
+        lostUpdates = meterRegistry.counter("live_data.tick_store.lost");
+        if (properties.isEnabled()) {
+            directory = Paths.get(properties.getDirectory()).toAbsolutePath();
+            log.info("Storing ticks in {}", directory);
+            try {
+                rebuild();
+            } catch (UncheckedIOException e) {
+                log.error("Replaying stored ticks failed; bars start empty", e);
+            }
+        } else {
+            log.info("Tick store disabled; bars are kept in memory only");
+        }
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tick-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(() -> {
+            try {
+                drain();
+            } catch (RuntimeException | IOException e) {
+                log.error("Storing ticks failed", e);
+            }
+        }, properties.getPollIntervalMs(), properties.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                drain();
+                if (segment != null) {
+                    segment.close();
+                }
+            } catch (RuntimeException | IOException e) {
+                log.error("Closing tick segment failed", e);
+            }
+        });
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        long[] records = new long[1];
+        try {
+            Files.createDirectories(directory);
+            LocalDate oldest = today().minusDays(Math.max(1, properties.getRetentionDays()) - 1L);
+            for (Path file : segmentFiles()) {
+                LocalDate day = dayOf(file);
+                if (day.isBefore(oldest)) {
+                    TickSegment.delete(file);
+                    log.info("Deleted expired tick segment {}", file.getFileName());
+                    continue;
+                }
+                TickSegment.forEach(file, (sequence, timeMillis, priceCents, symbol) -> {
+                    barAggregator.add(symbol, timeMillis, priceCents);
+                    records[0]++;
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Rebuilt bars from {} stored ticks in {} ms", records[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void drain() throws IOException {
+        boolean persist = directory != null;
+        LocalDate day = today();
+        if (persist && !day.equals(segmentDay)) {
+            roll(day);
+        }
+        if (!journal.readSince(storedSequence, batch)) {
+            long latest = journal.lastSequence();
+            log.warn("Tick journal overran the tick store; skipping from sequence {} to {}", storedSequence, latest);
+            lostUpdates.increment(Math.max(0, latest - storedSequence));
+            storedSequence = latest;
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            String symbol = priceBook.symbolAt(batch.symbolId(i));
+            if (persist) {
+                segment.append(batch.sequence(i), batch.timeMillis(i), batch.priceCents(i), symbol);
+            }
+            barAggregator.add(symbol, batch.timeMillis(i), batch.priceCents(i));
+        }
+        if (!batch.isEmpty()) {
+            storedSequence = batch.sequence(batch.size() - 1);
+            storedUpdates.increment(batch.size());
+        }
+    }
+
+    private void roll(LocalDate day) throws IOException {
+        if (segment != null) {
+            segment.close();
+            log.info("Closed tick segment for {} with {} records", segmentDay, segment.records());
+        }
+        Files.createDirectories(directory);
+        segment = TickSegment.open(directory.resolve(SEGMENT_PREFIX + day + SEGMENT_SUFFIX));
+        segmentDay = day;
+
+        LocalDate oldest = day.minusDays(Math.max(1, properties.getRetentionDays()) - 1L);
+        for (Path file : segmentFiles()) {
+            if (dayOf(file).isBefore(oldest)) {
+                TickSegment.delete(file);
+            }
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                if (dayOf(file) != null) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static LocalDate dayOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return LocalDate.parse(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.websocket;
+
+/**
+ * Wire formats a {@code /ws/stocks} subscriber can receive.
+ */
+public enum FrameFormat {
+    /**
+     * Protocol 1, the default: {@code {"updates":{"AAPL":187.12,...}}} with every changed subscribed
+     * symbol keyed by ticker. It carries no sequence numbers, so it cannot be resumed.
+     */
+    UPDATES_JSON,
+    /**
+     * Protocol 2: a {@code snapshot} frame mapping tickers to symbol ids on subscribe and periodically
+     * after that, then {@code delta} frames carrying {@code [symbolId, priceCents, sequence]} arrays for
+     * the symbols that changed.
+     */
+    DELTA_JSON,
+    /**
+     * Protocol 2 as binary frames, selected with the {@code stocks.binary.v1} WebSocket sub-protocol
+     * or {@code "encoding":"binary"} on subscribe. A frame starts with a type byte ({@code 1} delta,
+     * {@code 2} snapshot), the frame sequence as a big-endian int64 and the entry count as a big-endian
+     * int32. Each entry is three unsigned LEB128 varints: the symbol id, the price in cents and the
+     * frame sequence minus the entry's sequence. Snapshot entries are followed by the ticker as a
+     * varint length and UTF-8 bytes.
+     */
+    DELTA_BINARY;
+
+    public boolean isDelta() {
+        return this != UPDATES_JSON;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded outbound queue of one session. Producers only enqueue; frames are written to the session by
+ * one sender thread at a time, so a slow client never holds up the tick thread. A write that takes
+ * longer than the send time limit is {@link #abort aborted} by the {@link StockStreamSender} watchdog,
+ * so a stalled socket cannot pin a sender thread that other sessions need.
+ */
+@Slf4j
+public class OutboundChannel {
+    private final WebSocketSession session;
+    private final StockStreamSender sender;
+    private final Supplier<WebSocketMessage<?>> latestFrame;
+    private final BooleanSupplier deltas;
+    private final Queue<WebSocketMessage<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean conflated = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile boolean writing;
+    private volatile long writeStartedNanos;
+
+    OutboundChannel(WebSocketSession session, StockStreamSender sender, Supplier<WebSocketMessage<?>> latestFrame,
+                    BooleanSupplier deltas) {
+        this.session = session;
+        this.sender = sender;
+        this.latestFrame = latestFrame;
+        this.deltas = deltas;
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    public int depth() {
+        return depth.get();
+    }
+
+    public void send(WebSocketMessage<?> message) {
+        if (closed) {
+            return;
+        }
+        if (depth.get() >= sender.maxQueuedFrames()) {
+            SlowConsumerPolicy policy = sender.policy();
+            if (policy == SlowConsumerPolicy.DROP_OLDEST && deltas.getAsBoolean()) {
+                // A dropped delta leaves the client on a stale price, so resync it with a snapshot instead.
+                policy = SlowConsumerPolicy.CONFLATE;
+            }
+            switch (policy) {
+                case DROP_OLDEST -> {
+                    if (queue.poll() != null) {
+                        depth.decrementAndGet();
+                        sender.onDequeued(1);
+                        sender.onDropped(1);
+                    }
+                }
+                case CONFLATE -> {
+                    sender.onDropped(discardQueued());
+                    conflated.set(true);
+                    schedule();
+                    return;
+                }
+                case DISCONNECT -> {
+                    sender.onSlowConsumerDisconnect();
+                    closed = true;
+                    sender.onDropped(discardQueued());
+                    // Not through the sender pool, which may be busy with the very writes that stalled.
+                    close(CloseStatus.SESSION_NOT_RELIABLE);
+                    return;
+                }
+            }
+        }
+        queue.add(message);
+        depth.incrementAndGet();
+        sender.onEnqueued();
+        schedule();
+    }
+
+    /**
+     * Stops sending and discards whatever is still queued; called once the session has closed.
+     */
+    public void release() {
+        closed = true;
+        discardQueued();
+        sender.onReleased(this);
+    }
+
+    /**
+     * Whether a write has been in progress since before {@code deadlineNanos}.
+     */
+    boolean stalledSince(long deadlineNanos) {
+        return writing && writeStartedNanos - deadlineNanos < 0;
+    }
+
+    /**
+     * Gives up on a session whose write stalled: discards its queue and closes it, which also fails the
+     * blocked write and frees its sender thread.
+     */
+    void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        sender.onDropped(discardQueued());
+        close(CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    private void schedule() {
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!closed) {
+                if (conflated.getAndSet(false)) {
+                    sender.onDropped(discardQueued());
+                    write(latestFrame.get());
+                    continue;
+                }
+                WebSocketMessage<?> message = queue.poll();
+                if (message == null) {
+                    break;
+                }
+                depth.decrementAndGet();
+                sender.onDequeued(1);
+                write(message);
+            }
+        } finally {
+            draining.set(false);
+        }
+        if (!closed && (!queue.isEmpty() || conflated.get())) {
+            schedule();
+        }
+    }
+
+    private void write(WebSocketMessage<?> message) {
+        if (message == null || !session.isOpen()) {
+            return;
+        }
+        writeStartedNanos = System.nanoTime();
+        writing = true;
+        try {
+            session.sendMessage(message);
+        } catch (IOException | RuntimeException e) {
+            if (closed) {
+                return;
+            }
+            log.warn("Error sending stock update to session {}: {}", session.getId(), e.getMessage());
+            closed = true;
+            discardQueued();
+            close(CloseStatus.SERVER_ERROR);
+        } finally {
+            writing = false;
+        }
+    }
+
+    private int discardQueued() {
+        int discarded = 0;
+        while (queue.poll() != null) {
+            depth.decrementAndGet();
+            discarded++;
+        }
+        sender.onDequeued(discarded);
+        return discarded;
+    }
+
+    private void close(CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.warn("Error closing WebSocket session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smoothstack.live_data.config.StreamProperties;
+import com.smoothstack.live_data.engine.PriceBook;
+import com.smoothstack.live_data.engine.PriceStream;
+import com.smoothstack.live_data.engine.PriceTick;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.websocket.WebsocketInbound;
+import reactor.netty.http.websocket.WebsocketOutbound;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves {@code /ws/stocks} on a separate Reactor Netty port so price streaming does not hold a servlet
+ * thread per connection. Clients speak protocol 1 of {@link StockWebSocketHandler}: they send
+ * {@code {"action":"subscribe"|"unsubscribe","symbols":[...]}} and receive {@code {"updates":{...}}}
+ * frames, starting with a snapshot of the current prices of the symbols they subscribe to.
+ * <p>
+ * Every session subscribes to the shared {@link PriceStream}. A session that cannot keep up keeps at
+ * most {@code live-data.stream.max-queued-frames} ticks; when older ones are discarded it is sent a
+ * snapshot of its symbols instead, so it converges on current prices.
+ */
+@Component
+@ConditionalOnProperty(prefix = "live-data.reactive", name = "enabled", havingValue = "true")
+@Slf4j
+public class ReactiveStockWebSocketServer {
+    @Autowired
+    private PriceStream priceStream;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private StreamProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${live-data.reactive.port:9001}")
+    private int port;
+
+    private DisposableServer server;
+    private final AtomicInteger sessions = new AtomicInteger();
+    private Counter droppedFrames;
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("live_data.ws.reactive.sessions", sessions, AtomicInteger::get)
+                .register(meterRegistry);
+        droppedFrames = Counter.builder("live_data.ws.frames.dropped")
+                .tag("policy", "REACTIVE")
+                .register(meterRegistry);
+
+        server = HttpServer.create()
+                .port(port)
+                .route(routes -> routes.ws("/ws/stocks", this::handle))
+                .bindNow();
+        log.info("Reactive /ws/stocks listening on port {}", server.port());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    private Publisher<Void> handle(WebsocketInbound inbound, WebsocketOutbound outbound) {
+        Set<String> symbols = ConcurrentHashMap.newKeySet();
+        AtomicBoolean missed = new AtomicBoolean();
+
+        Flux<String> replies = inbound.receive().asString()
+                .handle((String text, SynchronousSink<String> sink) -> {
+                    String reply = applyMessage(text, symbols);
+                    if (reply != null) {
+                        sink.next(reply);
+                    }
+                });
+        Flux<String> prices = priceStream.ticks()
+                .onBackpressureBuffer(Math.max(1, properties.getMaxQueuedFrames()), dropped -> {
+                    missed.set(true);
+                    droppedFrames.increment();
+                }, BufferOverflowStrategy.DROP_OLDEST)
+                .handle((PriceTick tick, SynchronousSink<String> sink) -> {
+                    if (symbols.isEmpty()) {
+                        return;
+                    }
+                    String frame = missed.getAndSet(false)
+                            ? StockUpdateEncoder.updatesSnapshot(symbols, priceBook)
+                            : StockUpdateEncoder.updatesFrame(tick, symbols);
+                    if (frame != null) {
+                        sink.next(frame);
+                    }
+                });
+
+        return outbound.sendString(Flux.merge(replies, prices)
+                        .takeUntilOther(inbound.receiveCloseStatus())
+                        .doOnSubscribe(s -> sessions.incrementAndGet())
+                        .doFinally(signal -> sessions.decrementAndGet()))
+                .then();
+    }
+
+    /**
+     * Applies a client message to the session's symbols and returns the frame to answer it with: a
+     * snapshot of the symbols just subscribed to, an error, or null.
+     */
+    private String applyMessage(String text, Set<String> symbols) {
+        JsonNode jsonNode;
+        try {
+            jsonNode = objectMapper.readTree(text);
+        } catch (Exception e) {
+            return "Invalid message format. Expected JSON.";
+        }
+        JsonNode symbolsNode = jsonNode.get("symbols");
+        if (symbolsNode == null || !symbolsNode.isArray()) {
+            return "Invalid message format. Expected 'symbols' array.";
+        }
+        String action = jsonNode.path("action").asText();
+        switch (action) {
+            case "subscribe":
+                List<String> subscribed = new ArrayList<>(symbolsNode.size());
+                symbolsNode.forEach(symbol -> subscribed.add(symbol.asText()));
+                symbols.addAll(subscribed);
+                return StockUpdateEncoder.updatesSnapshot(subscribed, priceBook);
+            case "unsubscribe":
+                symbolsNode.forEach(symbol -> symbols.remove(symbol.asText()));
+                return null;
+            default:
+                return "Unknown action: " + action;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.websocket;
+
+import java.util.Arrays;
+
+/**
+ * The positions in a {@link com.smoothstack.live_data.engine.TickBatch} that one subscriber needs.
+ * Equal selections produce identical payloads, which is what lets the encoder share them.
+ */
+public class Selection {
+    private int[] indexes = new int[4];
+    private int size;
+
+    public void add(int index) {
+        if (size == indexes.length) {
+            indexes = Arrays.copyOf(indexes, size * 2);
+        }
+        indexes[size++] = index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int i) {
+        return indexes[i];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Selection other)) {
+            return false;
+        }
+        return Arrays.equals(indexes, 0, size, other.indexes, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + indexes[i];
+        }
+        return hash;
+    }
+}
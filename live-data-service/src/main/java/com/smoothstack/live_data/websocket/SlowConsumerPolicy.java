@@ -0,0 +1,36 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.websocket;
+
+/**
+ * What to do with a session whose outbound queue is full.
+ */
+public enum SlowConsumerPolicy {
+    /**
+     * Discard the oldest queued frame to make room for the new one. Sessions on a delta protocol are
+     * conflated instead, since a lost delta would leave them on a stale price until the next resync.
+     */
+    DROP_OLDEST,
+    /**
+     * Discard everything queued and send the latest price of every subscribed symbol instead.
+     */
+    CONFLATE,
+    /**
+     * Close the session.
+     */
+    DISCONNECT
+}
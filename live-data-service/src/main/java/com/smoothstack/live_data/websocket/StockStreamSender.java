@@ -0,0 +1,170 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.websocket;
+
+import com.smoothstack.live_data.config.StreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Owns the thread pool that writes queued frames to {@code /ws/stocks} sessions and the metrics of
+ * their outbound queues.
+ * <p>
+ * Writes block, so each session also gets a send time limit: the container's blocking send timeout is
+ * lowered to it where the session exposes one, and a watchdog closes any session whose write has been
+ * in progress for longer, which fails the write and hands its thread back to the pool.
+ */
+@Component
+@Slf4j
+public class StockStreamSender {
+    // Tomcat's per-session override of its default 20 s blocking send timeout, in milliseconds.
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    @Autowired
+    private StreamProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ExecutorService executor;
+    private ScheduledExecutorService watchdog;
+    private final Set<OutboundChannel> channels = ConcurrentHashMap.newKeySet();
+    private final AtomicLong queuedFrames = new AtomicLong();
+    private Counter droppedFrames;
+    private Counter slowConsumerDisconnects;
+    private Counter sendTimeouts;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, properties.getSenderThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "ws-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("live_data.ws.queue.depth", queuedFrames, AtomicLong::get)
+                .description("Frames waiting to be written to /ws/stocks sessions")
+                .register(meterRegistry);
+        droppedFrames = Counter.builder("live_data.ws.frames.dropped")
+                .tag("policy", properties.getSlowConsumerPolicy().name())
+                .register(meterRegistry);
+        slowConsumerDisconnects = meterRegistry.counter("live_data.ws.slow_consumer.disconnects");
+        sendTimeouts = meterRegistry.counter("live_data.ws.send_timeouts");
+
+        long checkInterval = Math.max(10, properties.getSendTimeLimitMs() / 4);
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ws-send-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::abortStalledWrites, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param latestFrame the session's current state, sent in place of the frames dropped by conflation
+     * @param deltas      whether the session currently receives deltas, which are never dropped silently
+     */
+    public OutboundChannel open(WebSocketSession session, Supplier<WebSocketMessage<?>> latestFrame,
+                                BooleanSupplier deltas) {
+        if (session instanceof NativeWebSocketSession nativeSession
+                && nativeSession.getNativeSession() instanceof jakarta.websocket.Session container) {
+            container.getUserProperties().put(BLOCKING_SEND_TIMEOUT, properties.getSendTimeLimitMs());
+        }
+        OutboundChannel channel = new OutboundChannel(session, this, latestFrame, deltas);
+        channels.add(channel);
+        return channel;
+    }
+
+    private void abortStalledWrites() {
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getSendTimeLimitMs());
+        for (OutboundChannel channel : channels) {
+            if (channel.stalledSince(deadline)) {
+                log.warn("Closing WebSocket session {}: a write took longer than {} ms",
+                        channel.getSession().getId(), properties.getSendTimeLimitMs());
+                sendTimeouts.increment();
+                channels.remove(channel);
+                try {
+                    channel.abort();
+                } catch (RuntimeException e) {
+                    log.warn("Error aborting WebSocket session {}", channel.getSession().getId(), e);
+                }
+            }
+        }
+    }
+
+    int maxQueuedFrames() {
+        return properties.getMaxQueuedFrames();
+    }
+
+    SlowConsumerPolicy policy() {
+        return properties.getSlowConsumerPolicy();
+    }
+
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    void onReleased(OutboundChannel channel) {
+        channels.remove(channel);
+    }
+
+    void onEnqueued() {
+        queuedFrames.incrementAndGet();
+    }
+
+    void onDequeued(int frames) {
+        if (frames > 0) {
+            queuedFrames.addAndGet(-frames);
+        }
+    }
+
+    void onDropped(int frames) {
+        if (frames > 0) {
+            droppedFrames.increment(frames);
+        }
+    }
+
+    void onSlowConsumerDisconnect() {
+        slowConsumerDisconnects.increment();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.websocket;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@code /ws/stocks} session together with the symbols it is subscribed to and the queue its frames
+ * are sent through.
+ */
+@Getter
+public class StockSubscriber {
+    private final WebSocketSession session;
+    private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+    @Setter
+    private volatile OutboundChannel channel;
+    @Setter
+    private volatile FrameFormat format = FrameFormat.UPDATES_JSON;
+
+    public StockSubscriber(WebSocketSession session) {
+        this.session = session;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.websocket;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.smoothstack.live_data.engine.PriceBook;
+import com.smoothstack.live_data.engine.PriceTick;
+import com.smoothstack.live_data.engine.TickBatch;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Encodes price frames once per tick and shares them between sessions.
+ * <p>
+ * Each changed symbol is rendered to its fragment for a given {@link FrameFormat} the first time a
+ * subscriber needs it, and every distinct {@link Selection} of symbols is assembled into a frame only
+ * once per format; sessions with the same selection and format receive the same message instance.
+ * {@link FrameFormat#UPDATES_JSON} output is byte-for-byte what Jackson produces for
+ * {@code StockPriceEvent}. Not thread-safe: one encoder belongs to the tick thread.
+ */
+public class StockUpdateEncoder {
+    private static final byte[] UPDATES_PREFIX = "{\"updates\":{".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UPDATES_SUFFIX = "}}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DELTA_SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+
+    public static final byte BINARY_DELTA = 1;
+    public static final byte BINARY_SNAPSHOT = 2;
+    private static final int BINARY_HEADER_BYTES = 1 + 8 + 4;
+    private static final int MAX_BINARY_ENTRY_BYTES = 5 + 10 + 10;
+
+    private static final FrameFormat[] FORMATS = FrameFormat.values();
+
+    private final List<Map<Selection, WebSocketMessage<?>>> frames = new ArrayList<>();
+    private final byte[][][] fragments = new byte[FORMATS.length][0][];
+    private TickBatch batch;
+    private IntFunction<String> symbols;
+
+    public StockUpdateEncoder() {
+        for (int i = 0; i < FORMATS.length; i++) {
+            frames.add(new HashMap<>());
+        }
+    }
+
+    public void beginTick(TickBatch batch, IntFunction<String> symbols) {
+        this.batch = batch;
+        this.symbols = symbols;
+        for (int f = 0; f < FORMATS.length; f++) {
+            frames.get(f).clear();
+            if (fragments[f].length < batch.size()) {
+                fragments[f] = new byte[batch.size()][];
+            } else {
+                Arrays.fill(fragments[f], 0, batch.size(), null);
+            }
+        }
+    }
+
+    public WebSocketMessage<?> encode(Selection selection) {
+        return encode(selection, FrameFormat.UPDATES_JSON);
+    }
+
+    public WebSocketMessage<?> encode(Selection selection, FrameFormat format) {
+        Map<Selection, WebSocketMessage<?>> cache = frames.get(format.ordinal());
+        WebSocketMessage<?> frame = cache.get(selection);
+        if (frame == null) {
+            frame = format == FrameFormat.DELTA_BINARY
+                    ? new BinaryMessage(assembleBinary(selection))
+                    : new TextMessage(assemble(selection, format));
+            cache.put(selection, frame);
+        }
+        if (frame instanceof BinaryMessage binary) {
+            // Sending consumes a ByteBuffer's position, so each session gets its own view of the bytes.
+            return new BinaryMessage(binary.getPayload().array());
+        }
+        return frame;
+    }
+
+    private byte[] assembleBinary(Selection selection) {
+        long frameSequence = batch.sequence(selection.get(selection.size() - 1));
+        ByteBuffer out = ByteBuffer.allocate(BINARY_HEADER_BYTES + selection.size() * MAX_BINARY_ENTRY_BYTES);
+        out.put(BINARY_DELTA).putLong(frameSequence).putInt(selection.size());
+        for (int i = 0; i < selection.size(); i++) {
+            int index = selection.get(i);
+            putVarLong(out, batch.symbolId(index));
+            putVarLong(out, batch.priceCents(index));
+            putVarLong(out, frameSequence - batch.sequence(index));
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    private byte[] assemble(Selection selection, FrameFormat format) {
+        byte[] prefix = format == FrameFormat.UPDATES_JSON
+                ? UPDATES_PREFIX
+                : ("{\"type\":\"delta\",\"seq\":" + batch.sequence(selection.get(selection.size() - 1))
+                        + ",\"updates\":[").getBytes(StandardCharsets.UTF_8);
+        byte[] suffix = format == FrameFormat.UPDATES_JSON ? UPDATES_SUFFIX : DELTA_SUFFIX;
+
+        int length = prefix.length + suffix.length + Math.max(0, selection.size() - 1);
+        for (int i = 0; i < selection.size(); i++) {
+            length += fragment(selection.get(i), format).length;
+        }
+
+        byte[] out = new byte[length];
+        System.arraycopy(prefix, 0, out, 0, prefix.length);
+        int pos = prefix.length;
+        for (int i = 0; i < selection.size(); i++) {
+            if (i > 0) {
+                out[pos++] = ',';
+            }
+            byte[] fragment = fragments[format.ordinal()][selection.get(i)];
+            System.arraycopy(fragment, 0, out, pos, fragment.length);
+            pos += fragment.length;
+        }
+        System.arraycopy(suffix, 0, out, pos, suffix.length);
+        return out;
+    }
+
+    private byte[] fragment(int index, FrameFormat format) {
+        byte[][] cache = fragments[format.ordinal()];
+        byte[] fragment = cache[index];
+        if (fragment == null) {
+            String text = format == FrameFormat.UPDATES_JSON
+                    ? '"' + quote(symbols.apply(batch.symbolId(index))) + "\":" + PriceBook.formatCents(batch.priceCents(index))
+                    : "[" + batch.symbolId(index) + "," + batch.priceCents(index) + "," + batch.sequence(index) + "]";
+            fragment = text.getBytes(StandardCharsets.UTF_8);
+            cache[index] = fragment;
+        }
+        return fragment;
+    }
+
+    /**
+     * Builds a frame with the current book price of each of the given symbols. For
+     * {@link FrameFormat#DELTA_JSON} this is a {@code snapshot} frame that also maps each ticker to the
+     * symbol id used by later deltas.
+     */
+    public static WebSocketMessage<?> snapshot(Collection<String> symbols, PriceBook priceBook, FrameFormat format) {
+        if (format == FrameFormat.UPDATES_JSON) {
+            return new TextMessage(updatesSnapshot(symbols, priceBook));
+        }
+        if (format == FrameFormat.DELTA_BINARY) {
+            return binarySnapshot(symbols, priceBook);
+        }
+
+        StringBuilder ids = new StringBuilder();
+        StringBuilder updates = new StringBuilder();
+        for (String symbol : symbols) {
+            int id = priceBook.indexOf(symbol);
+            if (id < 0) {
+                continue;
+            }
+            if (!ids.isEmpty()) {
+                ids.append(',');
+                updates.append(',');
+            }
+            ids.append('"').append(quote(symbol)).append("\":").append(id);
+            updates.append('[').append(id).append(',').append(priceBook.priceCents(id)).append(',')
+                    .append(priceBook.sequence(id)).append(']');
+        }
+        return new TextMessage("{\"type\":\"snapshot\",\"seq\":" + priceBook.lastSequence()
+                + ",\"symbols\":{" + ids + "},\"updates\":[" + updates + "]}");
+    }
+
+    /**
+     * The protocol 1 {@code {"updates":{...}}} document with the current book price of each of the given
+     * symbols.
+     */
+    public static String updatesSnapshot(Collection<String> symbols, PriceBook priceBook) {
+        StringBuilder json = new StringBuilder("{\"updates\":{");
+        boolean first = true;
+        for (String symbol : symbols) {
+            int id = priceBook.indexOf(symbol);
+            if (id < 0) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            json.append('"').append(quote(symbol)).append("\":").append(PriceBook.formatCents(priceBook.priceCents(id)));
+            first = false;
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * The protocol 1 {@code {"updates":{...}}} document with the updates of the given symbols in a
+     * {@link PriceTick}, or null if none of them changed.
+     */
+    public static String updatesFrame(PriceTick tick, Collection<String> symbols) {
+        StringBuilder json = null;
+        for (String symbol : symbols) {
+            int i = tick.indexOf(symbol);
+            if (i < 0) {
+                continue;
+            }
+            json = json == null ? new StringBuilder("{\"updates\":{") : json.append(',');
+            json.append(tick.jsonMember(i));
+        }
+        return json == null ? null : json.append("}}").toString();
+    }
+
+    private static BinaryMessage binarySnapshot(Collection<String> symbols, PriceBook priceBook) {
+        long frameSequence = priceBook.lastSequence();
+        List<byte[]> names = new ArrayList<>(symbols.size());
+        List<Integer> ids = new ArrayList<>(symbols.size());
+        int length = BINARY_HEADER_BYTES;
+        for (String symbol : symbols) {
+            int id = priceBook.indexOf(symbol);
+            if (id >= 0) {
+                byte[] name = symbol.getBytes(StandardCharsets.UTF_8);
+                names.add(name);
+                ids.add(id);
+                length += MAX_BINARY_ENTRY_BYTES + 5 + name.length;
+            }
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(length);
+        out.put(BINARY_SNAPSHOT).putLong(frameSequence).putInt(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            int id = ids.get(i);
+            putVarLong(out, id);
+            putVarLong(out, priceBook.priceCents(id));
+            // The tick thread keeps stamping while the book is read; an entry newer than the frame is
+            // reported as of the frame, so a client resuming from it is replayed the update again.
+            putVarLong(out, Math.max(0, frameSequence - priceBook.sequence(id)));
+            putVarLong(out, names.get(i).length);
+            out.put(names.get(i));
+        }
+        return new BinaryMessage(Arrays.copyOf(out.array(), out.position()));
+    }
+
+    /**
+     * Writes a non-negative value as an unsigned LEB128 varint: seven bits per byte, low bits first,
+     * with the high bit set on every byte but the last.
+     */
+    private static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static String quote(String symbol) {
+        return new String(JsonStringEncoder.getInstance().quoteAsString(symbol));
+    }
+}
@@ -19,17 +19,33 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smoothstack.live_data.service.RealTimeDataService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.util.List;
 
+/**
+ * Handles {@code /ws/stocks}. Clients send
+ * {@code {"action":"subscribe"|"unsubscribe","symbols":[...]}}; a subscribe may add
+ * {@code "protocol":2} to receive compact delta frames (see {@link FrameFormat#DELTA_JSON}) instead of
+ * the default protocol 1 update maps, and {@code "encoding":"binary"} to receive them as binary frames
+ * (see {@link FrameFormat#DELTA_BINARY}). Binary frames can also be negotiated up front with the
+ * {@value #BINARY_SUBPROTOCOL} sub-protocol. A delta client reconnecting after a drop may add
+ * {@code "resumeFrom":<seq>}, the last sequence number it applied, to be caught up with the updates it
+ * missed rather than a full snapshot. Protocol 1 frames carry no sequence numbers, so a protocol 1
+ * subscribe with {@code resumeFrom} is rejected.
+ */
 @Component
-public class StockWebSocketHandler extends TextWebSocketHandler {
+@Slf4j
+public class StockWebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable {
+    public static final String BINARY_SUBPROTOCOL = "stocks.binary.v1";
+
     @Autowired
     private RealTimeDataService realTimeDataService;
 
@@ -38,7 +54,8 @@ public class StockWebSocketHandler extends TextWebSocketHandler {
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        System.out.println("WebSocket connection established for session: " + session.getId());
+        realTimeDataService.register(session);
+        log.debug("WebSocket connection established for session {}", session.getId());
     }
 
 
@@ -54,23 +71,47 @@ public class StockWebSocketHandler extends TextWebSocketHandler {
 
             switch (action) {
                 case "subscribe":
-                    realTimeDataService.addSubscriptions(session, symbols);
+                    JsonNode resumeNode = jsonNode.get("resumeFrom");
+                    Long resumeFrom = resumeNode != null && resumeNode.canConvertToLong() ? resumeNode.asLong() : null;
+                    FrameFormat format = frameFormat(session, jsonNode);
+                    if (resumeFrom != null && !format.isDelta()) {
+                        realTimeDataService.send(session,
+                                new TextMessage("resumeFrom requires protocol 2 or binary encoding."));
+                        break;
+                    }
+                    realTimeDataService.addSubscriptions(session, symbols, format, resumeFrom);
                     break;
                 case "unsubscribe":
                     realTimeDataService.removeSubscriptions(session, symbols);
                     break;
                 default:
-                    session.sendMessage(new TextMessage("Unknown action: " + action));
+                    realTimeDataService.send(session, new TextMessage("Unknown action: " + action));
             }
         } else {
-            session.sendMessage(new TextMessage("Invalid message format. Expected 'symbols' array."));
+            realTimeDataService.send(session, new TextMessage("Invalid message format. Expected 'symbols' array."));
+        }
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(BINARY_SUBPROTOCOL);
+    }
+
+    private FrameFormat frameFormat(WebSocketSession session, JsonNode jsonNode) {
+        JsonNode encodingNode = jsonNode.get("encoding");
+        if (BINARY_SUBPROTOCOL.equals(session.getAcceptedProtocol())
+                || (encodingNode != null && "binary".equals(encodingNode.asText()))) {
+            return FrameFormat.DELTA_BINARY;
         }
+        JsonNode protocolNode = jsonNode.get("protocol");
+        int protocol = protocolNode != null ? protocolNode.asInt(1) : 1;
+        return protocol >= 2 ? FrameFormat.DELTA_JSON : FrameFormat.UPDATES_JSON;
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         realTimeDataService.removeAllSubscriptions(session);
-        System.out.println("WebSocket connection closed for session: " + session.getId());
-        System.out.println("Status: " + status.getCode() + " - " + status.getReason());
+        log.debug("WebSocket connection closed for session {}: {} {}", session.getId(), status.getCode(),
+                status.getReason());
     }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+/*
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package com.smoothstack.live_data.websocket;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the subscriptions of every session indexed both ways: session to symbols, and symbol to the
+ * subscribers interested in it, so a tick only has to visit the sessions its changed symbols affect.
+ * Both sides are updated per symbol with atomic {@code compute} calls, so subscribe and unsubscribe
+ * requests may race with each other and with a tick in progress.
+ */
+public class SubscriptionIndex {
+    private final Map<WebSocketSession, StockSubscriber> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Set<StockSubscriber>> bySymbol = new ConcurrentHashMap<>();
+
+    public StockSubscriber register(WebSocketSession session) {
+        return subscribers.computeIfAbsent(session, StockSubscriber::new);
+    }
+
+    public StockSubscriber subscribe(WebSocketSession session, Collection<String> symbols) {
+        StockSubscriber subscriber = register(session);
+        for (String symbol : symbols) {
+            subscriber.getSymbols().add(symbol);
+            bySymbol.compute(symbol, (key, set) -> {
+                Set<StockSubscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+                target.add(subscriber);
+                return target;
+            });
+        }
+        return subscriber;
+    }
+
+    public void unsubscribe(WebSocketSession session, Collection<String> symbols) {
+        StockSubscriber subscriber = subscribers.get(session);
+        if (subscriber == null) {
+            return;
+        }
+        for (String symbol : symbols) {
+            subscriber.getSymbols().remove(symbol);
+            detach(symbol, subscriber);
+        }
+    }
+
+    public StockSubscriber remove(WebSocketSession session) {
+        StockSubscriber subscriber = subscribers.remove(session);
+        if (subscriber != null) {
+            subscriber.getSymbols().forEach(symbol -> detach(symbol, subscriber));
+        }
+        return subscriber;
+    }
+
+    public StockSubscriber get(WebSocketSession session) {
+        return subscribers.get(session);
+    }
+
+    public Set<StockSubscriber> subscribersOf(String symbol) {
+        Set<StockSubscriber> set = bySymbol.get(symbol);
+        return set != null ? set : Collections.emptySet();
+    }
+
+    public Collection<StockSubscriber> all() {
+        return subscribers.values();
+    }
+
+    public boolean isEmpty() {
+        return bySymbol.isEmpty();
+    }
+
+    private void detach(String symbol, StockSubscriber subscriber) {
+        bySymbol.computeIfPresent(symbol, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.smoothstack.live_data.benchmark;
+
+import com.smoothstack.live_data.engine.TickBatch;
+import com.smoothstack.live_data.websocket.FrameFormat;
+import com.smoothstack.live_data.websocket.Selection;
+import com.smoothstack.live_data.websocket.StockUpdateEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode cost per price update of each {@link FrameFormat}, for one frame carrying a whole tick. Scores
+ * are nanoseconds per update; the bytes per update of each format are printed during setup.
+ * <p>
+ * Run with {@code mvn test-compile} followed by this class's {@code main} method.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(FrameEncodingBenchmark.UPDATES)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameEncodingBenchmark {
+    static final int UPDATES = 500;
+
+    @Param({"UPDATES_JSON", "DELTA_JSON", "DELTA_BINARY"})
+    public FrameFormat format;
+
+    private final StockUpdateEncoder encoder = new StockUpdateEncoder();
+    private final TickBatch batch = new TickBatch();
+    private final Selection selection = new Selection();
+    private String[] symbols;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        symbols = new String[UPDATES];
+        batch.reset(1, UPDATES);
+        for (int id = 0; id < UPDATES; id++) {
+            symbols[id] = String.format("S%03d", id);
+            batch.add(id, random.nextLong(100, 100_000), 1_000_000L + id);
+            selection.add(id);
+        }
+        System.out.printf("%n%s: %.1f bytes per update%n", format, (double) encode().getPayloadLength() / UPDATES);
+    }
+
+    @Benchmark
+    public WebSocketMessage<?> encode() {
+        encoder.beginTick(batch, id -> symbols[id]);
+        return encoder.encode(selection, format);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FrameEncodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
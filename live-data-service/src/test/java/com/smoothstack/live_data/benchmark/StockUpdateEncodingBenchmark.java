@@ -0,0 +1,96 @@
+package com.smoothstack.live_data.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smoothstack.live_data.dto.StockPriceEvent;
+import com.smoothstack.live_data.engine.TickBatch;
+import com.smoothstack.live_data.websocket.Selection;
+import com.smoothstack.live_data.websocket.StockUpdateEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of fanning one tick out to every session: serializing a {@code StockPriceEvent} per session
+ * with Jackson versus sharing frames through {@link StockUpdateEncoder}. Sessions draw their symbols
+ * from a fixed set of watchlists, as dashboards do.
+ * <p>
+ * Run with {@code mvn test-compile} followed by this class's {@code main} method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockUpdateEncodingBenchmark {
+    private static final int SYMBOLS = 500;
+    private static final int WATCHLISTS = 100;
+    private static final int SYMBOLS_PER_WATCHLIST = 10;
+
+    @Param({"1000", "10000"})
+    public int sessions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StockUpdateEncoder encoder = new StockUpdateEncoder();
+    private final TickBatch batch = new TickBatch();
+    private String[] symbols;
+    private Selection[] selections;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        symbols = new String[SYMBOLS];
+        batch.reset(1, SYMBOLS);
+        for (int id = 0; id < SYMBOLS; id++) {
+            symbols[id] = String.format("S%03d", id);
+            batch.add(id, random.nextLong(100, 100_000), id + 1);
+        }
+
+        Selection[] watchlists = new Selection[WATCHLISTS];
+        for (int w = 0; w < WATCHLISTS; w++) {
+            watchlists[w] = new Selection();
+            int first = random.nextInt(SYMBOLS - SYMBOLS_PER_WATCHLIST);
+            for (int i = 0; i < SYMBOLS_PER_WATCHLIST; i++) {
+                watchlists[w].add(first + i);
+            }
+        }
+        selections = new Selection[sessions];
+        for (int s = 0; s < sessions; s++) {
+            selections[s] = watchlists[random.nextInt(WATCHLISTS)];
+        }
+    }
+
+    @Benchmark
+    public void perSessionSerialization(Blackhole blackhole) throws Exception {
+        for (Selection selection : selections) {
+            Map<String, BigDecimal> updates = new HashMap<>();
+            for (int i = 0; i < selection.size(); i++) {
+                int index = selection.get(i);
+                updates.put(symbols[batch.symbolId(index)], BigDecimal.valueOf(batch.priceCents(index), 2));
+            }
+            blackhole.consume(objectMapper.writeValueAsString(new StockPriceEvent(updates)));
+        }
+    }
+
+    @Benchmark
+    public void sharedEncoding(Blackhole blackhole) {
+        encoder.beginTick(batch, id -> symbols[id]);
+        for (Selection selection : selections) {
+            blackhole.consume(encoder.encode(selection));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StockUpdateEncodingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
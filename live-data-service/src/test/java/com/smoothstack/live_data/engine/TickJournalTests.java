@@ -0,0 +1,143 @@
+package com.smoothstack.live_data.engine;
+
+import com.smoothstack.live_data.config.StreamProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickJournalTests {
+    private TickJournal journal;
+    private long sequence;
+
+    @BeforeEach
+    void setUp() {
+        StreamProperties properties = new StreamProperties();
+        properties.setJournalCapacity(4);
+        journal = new TickJournal();
+        ReflectionTestUtils.setField(journal, "properties", properties);
+        journal.init();
+    }
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        StreamProperties properties = new StreamProperties();
+        properties.setJournalCapacity(5);
+        TickJournal rounded = new TickJournal();
+        ReflectionTestUtils.setField(rounded, "properties", properties);
+        rounded.init();
+
+        assertEquals(8, rounded.capacity());
+        assertEquals(4, journal.capacity());
+    }
+
+    @Test
+    void readSinceCopiesTheUpdatesAfterTheSequenceInOrder() {
+        append(1, 0, 1, 2);
+
+        TickBatch into = new TickBatch();
+        assertTrue(journal.readSince(1, into));
+        assertEquals(2, into.size());
+        assertEquals(2, into.sequence(0));
+        assertEquals(1, into.symbolId(0));
+        assertEquals(3, into.sequence(1));
+        assertEquals(2, into.symbolId(1));
+        assertEquals(3, journal.lastSequence());
+    }
+
+    @Test
+    void readSinceTheLatestSequenceIsEmpty() {
+        append(1, 0, 1);
+
+        TickBatch into = new TickBatch();
+        assertTrue(journal.readSince(2, into));
+        assertEquals(0, into.size());
+    }
+
+    @Test
+    void readSinceFailsOnceTheReaderHasBeenLapped() {
+        append(1, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+        // Updates 7 to 10 are retained, so a client at 6 can still catch up but one at 5 cannot.
+        TickBatch into = new TickBatch();
+        assertTrue(journal.readSince(6, into));
+        assertEquals(4, into.size());
+        assertEquals(7, into.sequence(0));
+        assertEquals(10, into.sequence(3));
+
+        assertFalse(journal.readSince(5, new TickBatch()));
+        assertFalse(journal.readSince(0, new TickBatch()));
+    }
+
+    @Test
+    void readSinceFailsForSequencesBelowTheFloorOfABookReload() {
+        append(1, 0, 1);
+        append(2, 0, 1);
+
+        // Updates 1 and 2 were stamped under the old symbol ids.
+        assertFalse(journal.readSince(1, new TickBatch()));
+
+        TickBatch into = new TickBatch();
+        assertTrue(journal.readSince(2, into));
+        assertEquals(2, into.size());
+        assertEquals(3, into.sequence(0));
+    }
+
+    @Test
+    void readSinceNeverReturnsTornTicksWhileTheWriterLapsTheReader() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            // Each batch overwrites the whole ring before it is published.
+            TickBatch batch = new TickBatch();
+            long next = 0;
+            while (running.get()) {
+                batch.reset(next, journal.capacity());
+                for (int i = 0; i < journal.capacity(); i++) {
+                    next++;
+                    batch.add((int) next, next * 10, next, next * 100);
+                }
+                journal.append(batch, 1);
+            }
+        }, "journal-writer");
+        writer.start();
+
+        TickBatch into = new TickBatch();
+        long deadline = System.nanoTime() + 500_000_000L;
+        int reads = 0;
+        try {
+            while (System.nanoTime() < deadline) {
+                // Ask for the whole ring, whose oldest slots are the next ones the writer overwrites.
+                long since = Math.max(0, journal.lastSequence() - journal.capacity());
+                if (!journal.readSince(since, into)) {
+                    continue;
+                }
+                reads++;
+                for (int i = 0; i < into.size(); i++) {
+                    long expected = since + 1 + i;
+                    assertEquals(expected, into.sequence(i));
+                    assertEquals((int) expected, into.symbolId(i));
+                    assertEquals(expected * 10, into.priceCents(i));
+                    assertEquals(expected * 100, into.timeMillis(i));
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        assertTrue(reads > 0);
+    }
+
+    private void append(int bookVersion, int... symbolIds) {
+        TickBatch batch = new TickBatch();
+        batch.reset(sequence, symbolIds.length);
+        for (int id : symbolIds) {
+            batch.add(id, 100 + id, ++sequence);
+        }
+        journal.append(batch, bookVersion);
+    }
+}
@@ -0,0 +1,104 @@
+package com.smoothstack.live_data.store;
+
+import com.smoothstack.live_data.dto.MetaDataDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockSearchIndexTests {
+    private StockSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, MetaDataIndex.Entry> entries = new HashMap<>();
+        add(entries, "A", "Agilent Technologies", "Health Care");
+        add(entries, "AAL", "American Airlines Group", "Industrials");
+        add(entries, "AAPL", "Apple Inc.", "Information Technology");
+        add(entries, "ABBV", "AbbVie Inc.", "Health Care");
+        add(entries, "AMAT", "Applied Materials", "Information Technology");
+        add(entries, "AMZN", "Amazon.com Inc.", "Consumer Discretionary");
+        add(entries, "MSFT", "Microsoft Corp.", "Information Technology");
+
+        MetaDataIndex metaDataIndex = mock(MetaDataIndex.class);
+        when(metaDataIndex.snapshot()).thenReturn(new MetaDataIndex.Snapshot(entries, Instant.EPOCH));
+        searchIndex = new StockSearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "metaDataIndex", metaDataIndex);
+    }
+
+    @Test
+    void exactSymbolRanksBeforeSymbolPrefixesInTickerOrder() {
+        assertEquals(List.of("A", "AAL", "AAPL", "ABBV", "AMAT", "AMZN"), symbols("a", 10));
+        assertEquals(List.of("A", "AAL", "AAPL"), symbols("A", 3));
+    }
+
+    @Test
+    void symbolPrefixesRankBeforeNamePrefixes() {
+        assertEquals(List.of("AMAT", "AMZN", "AAL"), symbols("am", 10));
+    }
+
+    @Test
+    void exactNameWordRanksBeforeNamePrefix() {
+        assertEquals(List.of("AAPL", "AMAT"), symbols("appl", 10));
+        assertEquals(List.of("AAPL"), symbols("apple", 10));
+    }
+
+    @Test
+    void everyQueryWordMustPrefixANameWord() {
+        assertEquals(List.of("AAL"), symbols("american air", 10));
+        assertEquals(List.of(), symbols("american rail", 10));
+    }
+
+    @Test
+    void typosMatchWithinTheEditDistance() {
+        assertEquals(List.of("AMZN"), symbols("amazn", 10));
+        assertEquals(List.of("MSFT"), symbols("mircosoft", 10));
+        assertEquals(List.of(), symbols("amqqqqq", 10));
+        // Too short to guess at.
+        assertEquals(List.of(), symbols("mx", 10));
+    }
+
+    @Test
+    void fuzzyMatchesRankByDistance() {
+        List<StockSearchIndex.Match> matches = searchIndex.search("micrsoft", null, null, 10);
+        assertEquals(1, matches.size());
+        assertEquals(5, matches.get(0).score());
+    }
+
+    @Test
+    void prefixDistanceIsTheDistanceToTheClosestPrefix() {
+        int[] row = new int[16];
+        int[] previous = new int[16];
+        assertEquals(0, StockSearchIndex.prefixDistance("MICRO", "MICROSOFT", 2, row, previous));
+        assertEquals(1, StockSearchIndex.prefixDistance("MICRSO", "MICROSOFT", 2, row, previous));
+        assertEquals(2, StockSearchIndex.prefixDistance("MIRCOS", "MICROSOFT", 2, row, previous));
+        assertEquals(1, StockSearchIndex.prefixDistance("AMAZN", "AMAZON", 1, row, previous));
+    }
+
+    @Test
+    void filtersWithoutAQueryListMatchingStocksInTickerOrder() {
+        List<StockSearchIndex.Match> matches = searchIndex.search(null, " information technology ", null, 10);
+        assertEquals(List.of("AAPL", "AMAT", "MSFT"), matches.stream().map(match -> match.metaData().symbol()).toList());
+        assertEquals(List.of("A"), searchIndex.search("a", "Health Care", null, 1).stream()
+                .map(match -> match.metaData().symbol()).toList());
+    }
+
+    private List<String> symbols(String query, int limit) {
+        return searchIndex.search(query, null, null, limit).stream()
+                .map(match -> match.metaData().symbol())
+                .toList();
+    }
+
+    private static void add(Map<String, MetaDataIndex.Entry> entries, String symbol, String security, String sector) {
+        MetaDataDTO metaData = new MetaDataDTO(symbol, security, null, sector, null, null, null, null, null);
+        entries.put(symbol, new MetaDataIndex.Entry(metaData, "{}", "\"" + symbol + "\""));
+    }
+}
@@ -0,0 +1,72 @@
+package com.smoothstack.live_data.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smoothstack.live_data.dto.StockPriceEvent;
+import com.smoothstack.live_data.engine.PriceBook;
+import com.smoothstack.live_data.engine.TickBatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StockUpdateEncoderTests {
+    private static final String[] SYMBOLS = {"AAPL", "BRK.B", "PENNY", "FLAT", "ODD\"Q", "DOLLAR", "BIG"};
+    private static final long[] PRICES = {18_999, 41_205, 7, 100, 1_001, 100_000_009, 1_234_567_890_12L};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void updatesJsonMatchesJacksonByteForByte() throws Exception {
+        TickBatch batch = new TickBatch();
+        batch.reset(1, SYMBOLS.length);
+        Selection selection = new Selection();
+        Map<String, BigDecimal> updates = new LinkedHashMap<>();
+        for (int id = 0; id < SYMBOLS.length; id++) {
+            batch.add(id, PRICES[id], id + 1);
+            selection.add(id);
+            updates.put(SYMBOLS[id], BigDecimal.valueOf(PRICES[id], 2));
+        }
+
+        StockUpdateEncoder encoder = new StockUpdateEncoder();
+        encoder.beginTick(batch, id -> SYMBOLS[id]);
+        WebSocketMessage<?> frame = encoder.encode(selection, FrameFormat.UPDATES_JSON);
+
+        TextMessage text = assertInstanceOf(TextMessage.class, frame);
+        assertArrayEquals(objectMapper.writeValueAsBytes(new StockPriceEvent(updates)), text.asBytes());
+    }
+
+    @Test
+    void sessionsWithTheSameSelectionShareTheFrame() {
+        TickBatch batch = new TickBatch();
+        batch.reset(1, 2);
+        batch.add(0, 100, 1);
+        batch.add(1, 250, 2);
+        Selection first = new Selection();
+        first.add(1);
+        Selection second = new Selection();
+        second.add(1);
+
+        StockUpdateEncoder encoder = new StockUpdateEncoder();
+        encoder.beginTick(batch, id -> SYMBOLS[id]);
+
+        assertSame(encoder.encode(first), encoder.encode(second));
+    }
+
+    @Test
+    void priceBookFormatCentsMatchesBigDecimal() throws Exception {
+        long[] cents = {0, 1, 9, 10, 99, 100, 101, 110, 12_345, -1, -9, -10, -99, -100, -101, -12_345,
+                Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : cents) {
+            assertEquals(objectMapper.writeValueAsString(BigDecimal.valueOf(value, 2)),
+                    PriceBook.formatCents(value), "cents " + value);
+        }
+    }
+}